@@ -0,0 +1,80 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+import sudoku.Board;
+import sudoku.IterativeSolver;
+import sudoku.Seeds;
+
+/**
+ * Verifies that {@link IterativeSolver} allocates nothing per solve once warmed up.
+ *
+ * <p>Loads and counts every built-in seed repeatedly on one reused engine, then measures
+ * the bytes allocated by the current thread (via {@code com.sun.management.ThreadMXBean})
+ * across a further batch of solves. Exits with status 1 if any allocation was observed.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java bench.AllocationCheck}</pre>
+ */
+public final class AllocationCheck {
+    private static final int WARMUP = 20000;
+    private static final int MEASURED = 20000;
+
+    private AllocationCheck() {}
+
+    /**
+     * Run the check.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!mx.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation accounting is not supported by this JVM");
+            return;
+        }
+        mx.setThreadAllocatedMemoryEnabled(true);
+
+        String[] seeds = { Seeds.EASY, Seeds.MEDIUM, Seeds.HARD, Seeds.MULTI, Seeds.IMPOSSIBLE };
+        int[][] puzzles = new int[seeds.length][];
+        for (int k = 0; k < seeds.length; k++) puzzles[k] = flatten(seeds[k]);
+        IterativeSolver engine = new IterativeSolver(1000000);
+        int[] out = new int[Board.SIZE * Board.SIZE];
+
+        long sink = solveAll(engine, puzzles, out, WARMUP);
+        long threadId = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(threadId);
+        sink += solveAll(engine, puzzles, out, MEASURED);
+        long after = mx.getThreadAllocatedBytes(threadId);
+
+        long allocated = after - before;
+        System.out.printf("%d solves, %d bytes allocated (%.3f bytes/solve) [checksum %d]%n",
+            MEASURED, allocated, (double) allocated / MEASURED, sink);
+        if (allocated > 0) {
+            System.out.println("FAIL: IterativeSolver allocated during steady-state solving");
+            System.exit(1);
+        }
+        System.out.println("OK: zero bytes allocated per solve");
+    }
+
+    /* Private Methods */
+
+    private static long solveAll(IterativeSolver engine, int[][] puzzles, int[] out, int rounds) {
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            engine.load(puzzles[i % puzzles.length]);
+            sink += engine.countSolutions(2);
+            if (engine.copySolution(out)) sink += out[i % out.length];
+        }
+        return sink;
+    }
+
+    private static int[] flatten(String s) {
+        int[] cells = new int[s.length()];
+        for (int i = 0; i < cells.length; i++) {
+            char ch = s.charAt(i);
+            cells[i] = (ch == '.') ? 0 : ch - '0';
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,119 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import sudoku.Board;
+import sudoku.Seeds;
+
+/**
+ * Measures the heap footprint of {@link Board} against the old {@code Cell[SIZE][SIZE]} layout.
+ *
+ * <p>Two figures are reported for each layout:</p>
+ * <ul>
+ *   <li><em>retained</em> &mdash; heap still in use per board while {@code count} boards are
+ *       held live, measured from {@link Runtime} after forcing collections</li>
+ *   <li><em>allocated</em> &mdash; bytes allocated per copy, from the thread's
+ *       allocated-bytes counter ({@code com.sun.management.ThreadMXBean})</li>
+ * </ul>
+ * <p>The old layout is rebuilt here as {@code LegacyBoard} (one object per cell plus row
+ * arrays) so the two can be compared in the same JVM. Exits with status 1 if the retained
+ * saving is less than {@value #MIN_RATIO}x.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java bench.BoardFootprint [count]}</pre>
+ */
+public final class BoardFootprint {
+    private static final int MIN_RATIO = 5;
+    private static final int COPIES = 100000;
+
+    private BoardFootprint() {}
+
+    /** Mirror of the former {@code Cell}: one heap object per cell. */
+    private static final class LegacyCell {
+        int value;
+        final boolean given;
+
+        LegacyCell(int value, boolean given) {
+            this.value = value;
+            this.given = given;
+        }
+    }
+
+    /** Mirror of the former {@code Board}: a {@code SIZE x SIZE} grid of cell objects. */
+    private static final class LegacyBoard {
+        final LegacyCell[][] grid = new LegacyCell[Board.SIZE][Board.SIZE];
+
+        LegacyBoard(Board src) {
+            for (int r = 0; r < Board.SIZE; r++) {
+                for (int c = 0; c < Board.SIZE; c++) {
+                    grid[r][c] = new LegacyCell(src.cell(r, c).getValue(), src.cell(r, c).isGiven());
+                }
+            }
+        }
+    }
+
+    /**
+     * Run the measurement.
+     *
+     * @param args optional number of live boards to hold (default 200000)
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Board seed = Board.fromString(Seeds.MEDIUM);
+
+        double compact = retained(count, () -> seed.copy());
+        double legacy = retained(count, () -> new LegacyBoard(seed));
+        double compactAlloc = allocated(() -> seed.copy());
+        double legacyAlloc = allocated(() -> new LegacyBoard(seed));
+
+        System.out.printf("%-14s %16s %16s%n", "Layout", "retained B/board", "alloc B/copy");
+        System.out.printf("%-14s %16.1f %16.1f%n", "Cell[][]", legacy, legacyAlloc);
+        System.out.printf("%-14s %16.1f %16.1f%n", "byte[]+bitset", compact, compactAlloc);
+        double ratio = legacy / compact;
+        System.out.printf("%d live boards: %.1f MB vs %.1f MB (%.1fx smaller)%n",
+            count, legacy * count / 1e6, compact * count / 1e6, ratio);
+        if (ratio < MIN_RATIO) {
+            System.out.println("FAIL: expected at least " + MIN_RATIO + "x saving");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /* Private Methods */
+
+    private static double retained(int count, Supplier<Object> factory) { // Heap per live object.
+        Object[] live = new Object[count];
+        long before = usedAfterGc();
+        for (int i = 0; i < count; i++) live[i] = factory.get();
+        long after = usedAfterGc();
+        if (live[count - 1] == null) throw new IllegalStateException(); // keep the array reachable
+        return (double) (after - before) / count;
+    }
+
+    private static double allocated(Supplier<Object> factory) { // Bytes allocated per call.
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!mx.isThreadAllocatedMemorySupported()) return Double.NaN;
+        mx.setThreadAllocatedMemoryEnabled(true);
+        long sink = 0;
+        for (int i = 0; i < COPIES; i++) sink += factory.get().hashCode() & 1; // warm up
+        long thread = Thread.currentThread().getId();
+        long before = mx.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < COPIES; i++) sink += factory.get().hashCode() & 1;
+        long after = mx.getThreadAllocatedBytes(thread);
+        return sink < 0 ? 0 : (double) (after - before) / COPIES;
+    }
+
+    private static long usedAfterGc() { // Used heap once collections have settled.
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
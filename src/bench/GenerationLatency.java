@@ -0,0 +1,80 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+import sudoku.Board;
+import sudoku.Generator;
+import ui.SudokuFrame;
+
+/**
+ * Latency distribution of puzzle generation, sequential against raced attempts.
+ *
+ * <p>For each {@link SudokuFrame} difficulty, {@code count} puzzles are generated with
+ * {@link Generator#generateUnique(int, int)} and with
+ * {@link Generator#generateUniqueParallel(int, int)}, each timed on its own. Each line
+ * reports the median, 90th and 99th percentile and worst latency, plus how many of the
+ * puzzles reached the requested clue count (the rest are the best of
+ * {@code maxAttempts}).</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java bench.GenerationLatency [count] [maxAttempts]}</pre>
+ */
+public final class GenerationLatency {
+    private static final int[] CLUES = {
+        SudokuFrame.EASY, SudokuFrame.MEDIUM, SudokuFrame.HARD, SudokuFrame.EXPERT, SudokuFrame.EXTREME
+    };
+    private static final int WARMUP = 50;
+
+    private GenerationLatency() {}
+
+    /**
+     * Run the measurement.
+     *
+     * @param args optional puzzles per line (default 200) and attempt budget
+     *             (default {@link SudokuFrame#MAXATTEMPTS})
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : SudokuFrame.MAXATTEMPTS;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " cores, " + attempts + " attempts per puzzle");
+        System.out.printf("%-28s %10s %10s %10s %10s %10s%n", "Benchmark", "p50 ms", "p90 ms", "p99 ms", "max ms", "on target");
+        for (int clues : CLUES) {
+            measure("sequential[" + clues + "]", clues, count, c -> Generator.generateUnique(c, attempts));
+            measure("parallel[" + clues + "]", clues, count, c -> Generator.generateUniqueParallel(c, attempts));
+        }
+    }
+
+    /* Private Methods */
+
+    private static void measure(String name, int clues, int count, IntFunction<Board> gen) { // Prints one percentile line.
+        for (int i = 0; i < WARMUP; i++) gen.apply(clues);
+        long[] nanos = new long[count];
+        int onTarget = 0;
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            Board b = gen.apply(clues);
+            nanos[i] = System.nanoTime() - start;
+            if (givens(b) <= clues) onTarget++;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-28s %10.3f %10.3f %10.3f %10.3f %9.1f%%%n", name,
+            percentile(nanos, 50), percentile(nanos, 90), percentile(nanos, 99),
+            nanos[count - 1] / 1e6, 100.0 * onTarget / count);
+    }
+
+    private static double percentile(long[] sorted, int p) { // Nearest-rank percentile in milliseconds.
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static int givens(Board b) { // Number of given cells.
+        int n = 0;
+        for (int r = 0; r < Board.SIZE; r++) {
+            for (int c = 0; c < Board.SIZE; c++) {
+                if (b.cell(r, c).isGiven()) n++;
+            }
+        }
+        return n;
+    }
+}
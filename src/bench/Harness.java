@@ -0,0 +1,83 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal measurement loop used by the benchmark suites.
+ *
+ * <p>Each benchmark is warmed up for a fixed time and then run for a fixed time on the
+ * calling thread. The harness reports throughput (ops/s), average time per operation,
+ * and allocation per operation and per second, taken from the thread's allocated-bytes
+ * counter ({@code com.sun.management.ThreadMXBean}) in the same way as JMH's {@code gc}
+ * profiler. Operation results are folded into a sink so the JIT cannot drop the work.</p>
+ */
+final class Harness {
+    /** One benchmarked operation; its return value is consumed by the harness. */
+    @FunctionalInterface
+    interface Op {
+        long run();
+    }
+
+    private static final com.sun.management.ThreadMXBean MX =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private long sink = 0;
+
+    /**
+     * @param warmupMillis  warm-up time per benchmark
+     * @param measureMillis measurement time per benchmark
+     */
+    Harness(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+        if (MX.isThreadAllocatedMemorySupported()) MX.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /** Print the column header for {@link #run(String, Op)} lines. */
+    static void printHeader() {
+        System.out.printf("%-44s %14s %14s %12s %12s%n", "Benchmark", "ops/s", "us/op", "B/op", "MB/s alloc");
+    }
+
+    /**
+     * Warm up and measure one benchmark, then print its line.
+     *
+     * @param name benchmark name including parameters
+     * @param op   operation to measure
+     */
+    void run(String name, Op op) {
+        loop(op, warmupNanos);
+        long thread = Thread.currentThread().getId();
+        long allocBefore = MX.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long ops = loop(op, measureNanos);
+        long elapsed = System.nanoTime() - start;
+        long allocated = MX.getThreadAllocatedBytes(thread) - allocBefore;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("%-44s %14.1f %14.3f %12.1f %12.1f%n",
+            name, ops / seconds, elapsed / 1e3 / ops, (double) allocated / ops, allocated / 1e6 / seconds);
+    }
+
+    /**
+     * @return value folded from every operation's result; print it so the work stays observable
+     */
+    long sink() {
+        return sink;
+    }
+
+    /* Private Methods */
+
+    private long loop(Op op, long nanos) { // Runs op in growing batches until the time is used up.
+        long ops = 0;
+        long batch = 1;
+        long deadline = System.nanoTime() + nanos;
+        do {
+            for (long i = 0; i < batch; i++) sink += op.run();
+            ops += batch;
+            if (batch < (1 << 16)) batch <<= 1;
+        } while (System.nanoTime() < deadline);
+        return ops;
+    }
+}
@@ -0,0 +1,141 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+
+import sudoku.Board;
+import sudoku.Canonicalizer;
+import sudoku.DifficultyRater;
+import sudoku.Generator;
+import sudoku.GridSource;
+import sudoku.Seeds;
+import sudoku.SolveCache;
+import sudoku.Solver;
+import ui.SudokuFrame;
+import util.BoardUtils;
+
+/**
+ * Benchmark suite for the solver, the generator and the board primitives.
+ *
+ * <p>Benchmarks (parameters in brackets):</p>
+ * <ul>
+ *   <li>{@code solve[engine,seed]} &mdash; {@link Solver#solve(Board)} on a fresh copy of each {@link Seeds} puzzle</li>
+ *   <li>{@code analyze[engine,seed]} &mdash; {@link Solver#analyze(Board)} uniqueness check</li>
+ *   <li>{@code analyze[cached]} &mdash; a {@link SolveCache} hit for a seed puzzle</li>
+ *   <li>{@code solvedGrid[transform]}, {@code solvedGrid[search]} &mdash; one solved grid from
+ *       {@link GridSource#next(int[])} and from {@link GridSource#search(SplittableRandom)}</li>
+ *   <li>{@code generateUnique[clues]} &mdash; {@link Generator#generateUnique(int, int)} at each
+ *       {@link SudokuFrame} difficulty (38/35/31/28/23 clues)</li>
+ *   <li>{@code generateUniqueParallel[clues]} &mdash; {@link Generator#generateUniqueParallel(int, int)}
+ *       at the same difficulties</li>
+ *   <li>{@code canonicalize[puzzle]}, {@code canonicalize[grid]} &mdash; {@link Canonicalizer#canonicalize(int[], int[])}
+ *       over generated puzzles of every difficulty and over their solutions</li>
+ *   <li>{@code rate[clues]} &mdash; {@link DifficultyRater#rate(int[])} over the same puzzles,
+ *       per difficulty</li>
+ *   <li>{@code isValidPlacement}, {@code isSolved} &mdash; {@link Board} checks on a solved grid</li>
+ *   <li>{@code copy} &mdash; {@link BoardUtils#copy(Board)}</li>
+ * </ul>
+ * <p>Each line reports throughput, average time and allocation rate; see {@link Harness}.
+ * The shared {@link SolveCache} is switched off so that {@code solve} and {@code analyze}
+ * measure the engines rather than cache hits.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java bench.SudokuBenchmarks [regex] [warmupMillis] [measureMillis]}</pre>
+ * <p>Only benchmarks whose name contains a match for {@code regex} are run.</p>
+ */
+public final class SudokuBenchmarks {
+    private static final String[] SEEDS = { "easy", "medium", "hard", "multi", "impossible" };
+    private static final int[] CLUES = {
+        SudokuFrame.EASY, SudokuFrame.MEDIUM, SudokuFrame.HARD, SudokuFrame.EXPERT, SudokuFrame.EXTREME
+    };
+
+    private static final int CANON_SET = 500; // puzzles cycled through by the canonicalize and rate benchmarks
+
+    private SudokuBenchmarks() {}
+
+    /**
+     * Run the suite.
+     *
+     * @param args optional name filter, warm-up time and measurement time in milliseconds
+     */
+    public static void main(String[] args) {
+        System.setProperty("sudoku.solveCache", "0"); // before the shared cache is first used
+        Pattern filter = Pattern.compile(args.length > 0 ? args[0] : "");
+        long warmup = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long measure = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        Harness h = new Harness(warmup, measure);
+        Harness.printHeader();
+
+        for (Solver.Engine engine : Solver.Engine.values()) {
+            Solver solver = new Solver(engine);
+            for (String seed : SEEDS) {
+                Board puzzle = Board.fromString(Seeds.BY_NAME.get(seed));
+                String params = "[" + engine.name().toLowerCase() + "," + seed + "]";
+                bench(h, filter, "solve" + params, () -> solver.solve(BoardUtils.copy(puzzle)) ? 1 : 0);
+                bench(h, filter, "analyze" + params, () -> solver.analyze(puzzle).getNumSolutions());
+            }
+        }
+
+        SolveCache cache = new SolveCache(16);
+        int[] cachedPuzzle = Board.fromString(Seeds.HARD).toArray();
+        cache.put(cachedPuzzle, new Solver().analyze(cachedPuzzle));
+        bench(h, filter, "analyze[cached]", () -> cache.get(cachedPuzzle).getNumSolutions());
+
+        GridSource grids = new GridSource(1L);
+        SplittableRandom rng = new SplittableRandom(1L);
+        int[] grid = new int[Board.SIZE * Board.SIZE];
+        bench(h, filter, "solvedGrid[transform]", () -> {
+            grids.next(grid);
+            return grid[0];
+        });
+        bench(h, filter, "solvedGrid[search]", () -> GridSource.search(rng)[0]);
+
+        for (int clues : CLUES) {
+            bench(h, filter, "generateUnique[" + clues + "]",
+                () -> Generator.generateUnique(clues, SudokuFrame.MAXATTEMPTS).cell(0, 0).getValue());
+            bench(h, filter, "generateUniqueParallel[" + clues + "]",
+                () -> Generator.generateUniqueParallel(clues, SudokuFrame.MAXATTEMPTS).cell(0, 0).getValue());
+        }
+
+        int[][] puzzles = new int[CANON_SET][], solutions = new int[CANON_SET][];
+        for (int i = 0; i < CANON_SET; i++) {
+            Board p = Generator.generateUnique(i, CLUES[i % CLUES.length], SudokuFrame.MAXATTEMPTS);
+            puzzles[i] = p.toArray();
+            solutions[i] = new Solver().analyze(p).getSolution();
+        }
+        Canonicalizer canon = new Canonicalizer();
+        int[] canonical = new int[Board.SIZE * Board.SIZE];
+        int[] next = { 0 };
+        bench(h, filter, "canonicalize[puzzle]", () -> {
+            canon.canonicalize(puzzles[next[0]++ % CANON_SET], canonical);
+            return canonical[Board.SIZE * Board.SIZE - 1];
+        });
+        bench(h, filter, "canonicalize[grid]", () -> {
+            canon.canonicalize(solutions[next[0]++ % CANON_SET], canonical);
+            return canonical[Board.SIZE * Board.SIZE - 1];
+        });
+
+        DifficultyRater rater = new DifficultyRater();
+        for (int d = 0; d < CLUES.length; d++) {
+            int first = d, perClues = CANON_SET / CLUES.length;
+            bench(h, filter, "rate[" + CLUES[d] + "]",
+                () -> rater.rate(puzzles[first + CLUES.length * (next[0]++ % perClues)]).getScore());
+        }
+
+        Board solved = Board.fromString(Seeds.HARD);
+        new Solver().solve(solved);
+        int[] probe = { 0 };
+        bench(h, filter, "isValidPlacement", () -> {
+            int i = probe[0]++ % (Board.SIZE * Board.SIZE);
+            return solved.isValidPlacement(i / Board.SIZE, i % Board.SIZE, 1 + i % Board.SIZE) ? 1 : 0;
+        });
+        bench(h, filter, "isSolved", () -> solved.isSolved() ? 1 : 0);
+        bench(h, filter, "copy", () -> BoardUtils.copy(solved).cell(8, 8).getValue());
+
+        System.out.println("(sink " + h.sink() + ")");
+    }
+
+    private static void bench(Harness h, Pattern filter, String name, Harness.Op op) {
+        if (filter.matcher(name).find()) h.run(name, op);
+    }
+}
@@ -0,0 +1,90 @@
+package sudoku;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Headless batch entry point that rates every puzzle in a file with a {@link DifficultyRater}.
+ *
+ * <p>The input is read exactly as {@link BatchSolver} reads it, and chunks are rated in
+ * parallel on all cores, each chunk with its own rater. Results are written in input
+ * order, one CSV line per puzzle:</p>
+ * <pre>{@code puzzle,technique,score,solved}</pre>
+ * <p>where {@code technique} is the name of the hardest {@link DifficultyRater.Technique}
+ * needed and {@code solved} is {@code false} when the rater's techniques were not enough.
+ * Throughput is reported on standard error.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java sudoku.BatchRater <input> [output] [threads]}</pre>
+ */
+public final class BatchRater {
+    private static final int N = Board.SIZE * Board.SIZE;
+
+    private BatchRater() {}
+
+    /**
+     * Launch the batch rater.
+     *
+     * @param args input file, optional output file (default standard output), optional thread count
+     * @throws IOException if the input cannot be read or the output cannot be written
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java sudoku.BatchRater <input> [output] [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        long count;
+        long skipped;
+        try (PuzzleReader in = new PuzzleReader(Path.of(args[0]));
+             Writer out = args.length > 1
+                 ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.US_ASCII)
+                 : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))) {
+            count = run(in, out, threads);
+            skipped = in.getSkippedCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Rated %d puzzles in %.2f s (%.0f puzzles/sec), skipped %d invalid lines%n",
+            count, seconds, count / seconds, skipped);
+    }
+
+    /**
+     * Rate every puzzle from {@code in} and write one result line per puzzle to {@code out}.
+     *
+     * @param in      puzzle source
+     * @param out     result sink; written in input order
+     * @param threads number of worker threads
+     * @return number of puzzles processed
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static long run(PuzzleReader in, Writer out, int threads) throws IOException, InterruptedException {
+        out.write("puzzle,technique,score,solved\n");
+        return ChunkPipeline.run(in, threads, BatchRater::rateChunk, out::write);
+    }
+
+    /* Private Methods */
+
+    private static String rateChunk(int[] chunk, int size) {
+        DifficultyRater rater = new DifficultyRater();
+        StringBuilder sb = new StringBuilder(size * 120);
+        int[] cells = new int[N];
+        for (int k = 0; k < size; k++) {
+            System.arraycopy(chunk, k * N, cells, 0, N);
+            for (int v : cells) sb.append(v == 0 ? '.' : (char) ('0' + v));
+            DifficultyRating rating = rater.rate(cells);
+            sb.append(',').append(rating.getHardest() == null ? "-" : rating.getHardest().name())
+              .append(',').append(rating.getScore())
+              .append(',').append(rating.isSolved()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package sudoku;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Headless batch entry point that analyses every puzzle in a file.
+ *
+ * <p>The input holds one 81-character puzzle per line in the same format as
+ * {@link Board#fromString(String)} (digits {@code 1..9}, {@code 0} or {@code '.'} for empty).
+ * The file is read through a {@link PuzzleReader} into flat chunk buffers, and the chunks are
+ * analysed in parallel on all cores by a shared {@link Solver} that bypasses the solve cache
+ * and the solution index, so every puzzle is searched. Results are written in input order,
+ * one CSV line per puzzle:</p>
+ * <pre>{@code puzzle,solution,solutions,status,nodes,micros}</pre>
+ * <p>where {@code solution} is the unique solution or {@code -}, {@code solutions} is
+ * 0, 1 or 2 (2 meaning "two or more") and {@code status} is the
+ * {@link SolveResult.Status} name; {@code EXHAUSTED} means the search ran out of nodes
+ * before deciding, so {@code solutions} is only a lower bound. Lines that are not valid puzzles are skipped and
+ * counted. Only a fixed number of chunks is ever in flight, so memory stays bounded no
+ * matter how large the file is. Throughput is reported on standard error.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java sudoku.BatchSolver <input> [output] [threads]}</pre>
+ */
+public final class BatchSolver {
+    private static final int N = Board.SIZE * Board.SIZE;
+
+    private BatchSolver() {}
+
+    /**
+     * Launch the batch solver.
+     *
+     * @param args input file, optional output file (default standard output), optional thread count
+     * @throws IOException if the input cannot be read or the output cannot be written
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: java sudoku.BatchSolver <input> [output] [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        long count;
+        long skipped;
+        try (PuzzleReader in = new PuzzleReader(Path.of(args[0]));
+             Writer out = args.length > 1
+                 ? Files.newBufferedWriter(Path.of(args[1]), StandardCharsets.US_ASCII)
+                 : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII))) {
+            count = run(in, out, threads);
+            skipped = in.getSkippedCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Processed %d puzzles in %.2f s (%.0f puzzles/sec), skipped %d invalid lines%n",
+            count, seconds, count / seconds, skipped);
+    }
+
+    /**
+     * Analyse every puzzle from {@code in} and write one result line per puzzle to {@code out}.
+     *
+     * @param in      puzzle source
+     * @param out     result sink; written in input order
+     * @param threads number of worker threads
+     * @return number of puzzles processed
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static long run(PuzzleReader in, Writer out, int threads) throws IOException, InterruptedException {
+        Solver solver = new Solver(Solver.getDefaultEngine(), null); // one-off puzzles: no cache, no index
+        out.write("puzzle,solution,solutions,status,nodes,micros\n");
+        return ChunkPipeline.run(in, threads, (chunk, size) -> analyzeChunk(solver, chunk, size), out::write);
+    }
+
+    /* Private Methods */
+
+    private static String analyzeChunk(Solver solver, int[] chunk, int size) {
+        StringBuilder sb = new StringBuilder(size * 200);
+        int[] cells = new int[N];
+        for (int k = 0; k < size; k++) {
+            System.arraycopy(chunk, k * N, cells, 0, N);
+            for (int v : cells) sb.append(v == 0 ? '.' : (char) ('0' + v));
+            sb.append(',');
+            long t0 = System.nanoTime();
+            SolveResult result = solver.analyze(cells);
+            long micros = (System.nanoTime() - t0) / 1000;
+            int[] solution = result.getSolution();
+            if (solution == null) {
+                sb.append('-');
+            } else {
+                for (int v : solution) sb.append((char) ('0' + v));
+            }
+            sb.append(',').append(result.getNumSolutions())
+              .append(',').append(result.getStatus().name())
+              .append(',').append(result.getSearchCount())
+              .append(',').append(micros).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package sudoku;
+
+/**
+ * Backtracking search engine that tracks row, column and box occupancy as bitmasks.
+ *
+ * <p>Each unit keeps a {@code SIZE}-bit mask of the digits already placed in it, so the
+ * candidates for a cell are found with a single OR/AND instead of rescanning the grid,
+ * and digits are tried by peeling off the lowest set bit. Empty cells are visited in
+ * row-major order and digits in ascending order, so the search explores exactly the
+ * same tree as the original {@link Solver} backtracking (same first solution, same
+ * node count) while doing far less work per node.</p>
+ *
+ * <p>The engine works on a flat row-major copy of the puzzle ({@code index = r * SIZE + c},
+ * {@code 0} for empty) and never touches a {@link Board}. Instances are single-threaded;
+ * create one per search.</p>
+ */
+public final class BitmaskSolver implements SudokuSearch {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int ALL = (1 << Board.SIZE) - 1;
+
+    private final int[] cells = new int[N];
+    private final int[] rowMask = new int[Board.SIZE];
+    private final int[] colMask = new int[Board.SIZE];
+    private final int[] boxMask = new int[Board.SIZE];
+    private final int[] empties = new int[N];
+    private final int emptyCount;
+    private final boolean consistent;
+    private final long searchLimit;
+
+    private int[] solution = null;
+    private long searchCount = 0;
+    private long backtrackCount = 0;
+    private CancellationToken cancellation = null;
+    private long nextCheck = 0; // searchCount past which outOfBudget() is asked
+    private boolean cancelled = false;
+
+    /**
+     * Prepare a search over a flat puzzle.
+     *
+     * @param start       {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param searchLimit maximum number of search nodes before the search gives up
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value
+     */
+    public BitmaskSolver(int[] start, long searchLimit) {
+        if (start == null) throw new NullPointerException("Passed array is null");
+        if (start.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        this.searchLimit = searchLimit;
+        boolean ok = true;
+        int count = 0;
+        for (int i = 0; i < N; i++) {
+            int v = start[i];
+            if (v < 0 || v > Board.SIZE) {
+                throw new IllegalArgumentException("Value out of range at index " + i);
+            }
+            cells[i] = v;
+            if (v == 0) {
+                empties[count++] = i;
+            } else {
+                int r = i / Board.SIZE, c = i % Board.SIZE, b = boxOf(r, c);
+                int bit = 1 << (v - 1);
+                if (((rowMask[r] | colMask[c] | boxMask[b]) & bit) != 0) ok = false; // clue clashes with another clue
+                rowMask[r] |= bit;
+                colMask[c] |= bit;
+                boxMask[b] |= bit;
+            }
+        }
+        this.emptyCount = count;
+        this.consistent = ok;
+    }
+
+    @Override
+    public int countSolutions(int limit) {
+        if (limit < 1) limit = 1;
+        searchCount = 0;
+        nextCheck = (cancellation == null) ? searchLimit : 0;
+        cancelled = false;
+        backtrackCount = 0;
+        solution = null;
+        return consistent ? countRec(0, limit) : 0;
+    }
+
+    @Override
+    public int[] getSolution() {
+        return solution == null ? null : solution.clone();
+    }
+
+    @Override
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    @Override
+    public long getPropagationCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean isSearchLimitHit() {
+        return searchCount > searchLimit || cancelled;
+    }
+
+    @Override
+    public void setCancellation(CancellationToken token) {
+        this.cancellation = token;
+    }
+
+    /* Private Methods */
+
+    private boolean outOfBudget() { // True once out of nodes or cancelled; otherwise schedules the next poll.
+        if (searchCount > searchLimit || cancelled) return true;
+        if (cancellation != null && cancellation.isCancelled()) {
+            cancelled = true;
+            return true;
+        }
+        nextCheck = Math.min(searchLimit, searchCount + CancellationToken.CHECK_INTERVAL);
+        return false;
+    }
+
+    private int countRec(int k, int limit) { // k indexes the next empty cell in row-major order
+        searchCount++;
+        if (searchCount > nextCheck && outOfBudget()) return 0;
+        if (k == emptyCount) {
+            if (solution == null) solution = cells.clone();
+            return 1;
+        }
+        int i = empties[k];
+        int r = i / Board.SIZE, c = i % Board.SIZE, b = boxOf(r, c);
+        int candidates = ALL & ~(rowMask[r] | colMask[c] | boxMask[b]);
+        if (candidates == 0) backtrackCount++;
+        int solutions = 0;
+        while (candidates != 0) {
+            int bit = candidates & -candidates; // lowest digit still available
+            candidates ^= bit;
+            cells[i] = Integer.numberOfTrailingZeros(bit) + 1;
+            rowMask[r] |= bit;
+            colMask[c] |= bit;
+            boxMask[b] |= bit;
+            solutions += countRec(k + 1, limit - solutions);
+            rowMask[r] ^= bit;
+            colMask[c] ^= bit;
+            boxMask[b] ^= bit;
+            cells[i] = 0;
+            if (solutions >= limit) break; // short-circuit
+        }
+        return solutions;
+    }
+
+    private static int boxOf(int r, int c) {
+        return (r / Board.BOX) * Board.BOX + (c / Board.BOX);
+    }
+}
@@ -4,6 +4,17 @@ package sudoku;
  * Mutable SIZExSIZE Sudoku board. Holds cell values, enforces in-bounds access,
  * and provides row/column/box legality checks.
  *
+ * <p>Values are stored in one flat row-major {@code byte[]} and the givens in an
+ * 81-bit set packed into two {@code long}s, so a board is a few small arrays
+ * rather than a grid of {@link Cell}s, {@link #copy()} is a single array copy, and
+ * {@link #snapshot()} shares those arrays copy-on-write.
+ * {@link Cell}s are views created on demand by {@link #cell(int, int)}.</p>
+ *
+ * <p>Every write also updates a digit mask per row, column and box, a count of filled
+ * cells and a count of conflicting placements, so {@link #isValidPlacement(int, int, int)}
+ * and {@link #isSolved()} are constant-time and never touch the board's values. Queries
+ * only read; they are safe from several threads as long as nothing writes meanwhile.</p>
+ *
  * <p>Digits are 1–SIZE; 0 means empty. {@link #SIZE} is the single source of truth
  * for board dimensions.</p>
  */
@@ -11,8 +22,28 @@ public class Board {
     /** Board width/height (9 for a standard Sudoku). */
     public static final int SIZE = 9;
     public static final int BOX = 3;
+    private static final int N = SIZE * SIZE;
+    private static final int ROWS = 0, COLS = SIZE, BOXES = 2 * SIZE; // offsets into unitMasks
+    private static final int[] UNIT_CELLS = new int[3 * SIZE * SIZE]; // cells of unit u at [u*SIZE, (u+1)*SIZE)
+
+    static {
+        for (int k = 0; k < SIZE; k++) {
+            for (int j = 0; j < SIZE; j++) {
+                UNIT_CELLS[(ROWS + k) * SIZE + j] = k * SIZE + j;
+                UNIT_CELLS[(COLS + k) * SIZE + j] = j * SIZE + k;
+                int r = (k / BOX) * BOX + j / BOX, c = (k % BOX) * BOX + j % BOX;
+                UNIT_CELLS[(BOXES + k) * SIZE + j] = r * SIZE + c;
+            }
+        }
+    }
 
-    private final Cell[][] grid = new Cell[SIZE][SIZE];
+    private byte[] values; // row-major, 0 for empty
+    private short[] unitMasks; // digits present per row, column, box
+    private boolean shared; // arrays may be referenced by a snapshot; copy before writing
+    private long givensLo; // givens bitset: cells 0..63
+    private long givensHi; // givens bitset: cells 64..N-1
+    private int filled; // non-empty cells
+    private int conflicts; // placements that repeat a digit already in one of their units
     
     /**
      * Construct a SIZE×SIZE Sudoku board from an initial value matrix.
@@ -28,6 +59,8 @@ public class Board {
         if (start.length != SIZE){
             throw new IllegalArgumentException("Passed array must have " + SIZE + " rows");
         }
+        values = new byte[N];
+        unitMasks = new short[3 * SIZE];
         for (int r = 0; r < SIZE; r++) {
             int [] row = start[r];
             if (row == null || row.length != SIZE){
@@ -38,7 +71,7 @@ public class Board {
                 if (v < 0 || v > SIZE){
                     throw new IllegalArgumentException(" Value at row " + r + " and column " + c + " is out of range for the size of board");
                 }
-                grid[r][c] = new Cell(v, v != 0); // given if nonzero
+                init(r * SIZE + c, v, v != 0); // given if nonzero
             }
         }
     }
@@ -59,6 +92,8 @@ public class Board {
     private Board(int[][] start, boolean[][] givens) {
         if (start == null) throw new NullPointerException("Passed 2D array is null");
         if (start.length != SIZE) throw new IllegalArgumentException("Passed array must have " + SIZE + " rows");
+        values = new byte[N];
+        unitMasks = new short[3 * SIZE];
         for (int r = 0; r < SIZE; r++) {
             int[] row = start[r];
             if (row == null || row.length != SIZE) {
@@ -69,22 +104,83 @@ public class Board {
                 if (v < 0 || v > SIZE) {
                     throw new IllegalArgumentException("Value out of range at (" + r + "," + c+ ")");
                 }
-                grid[r][c] = new Cell(v, givens[r][c]);
+                init(r * SIZE + c, v, givens[r][c]);
             }
         }
     }
 
     /**
-     * Get the {@link Cell} at (r,c).
+     * Internal copy constructor: copies the arrays and counters as they are, or shares the
+     * arrays with {@code src} until either board is next written.
+     *
+     * @param src   board to copy
+     * @param share {@code true} to share the arrays copy-on-write instead of copying them
+     */
+    private Board(Board src, boolean share) {
+        if (share) {
+            values = src.values;
+            unitMasks = src.unitMasks;
+            shared = true;
+            src.shared = true;
+        } else {
+            values = src.values.clone();
+            unitMasks = src.unitMasks.clone();
+        }
+        givensLo = src.givensLo;
+        givensHi = src.givensHi;
+        filled = src.filled;
+        conflicts = src.conflicts;
+    }
+
+    /**
+     * Get a {@link Cell} view of (r,c).
+     * <p>The view is created on demand and reads and writes straight through to this
+     * board; it holds no state of its own.</p>
      *
      * @param r row index 0..SIZE-1
      * @param c column index 0..SIZE-1
-     * @return the cell object at the given coordinates (never {@code null})
+     * @return a view of the cell at the given coordinates (never {@code null})
      * @throws ArrayIndexOutOfBoundsException if out of bounds
      */
     public Cell cell(int r, int c) {  // Getter method to pull cell without affecting the original grid
         if(!inBounds(r, c)) throw new ArrayIndexOutOfBoundsException("Row and/or Cell is out of bounds.");
-        return grid[r][c];
+        return new Cell(this, r * SIZE + c);
+    }
+
+    /**
+     * Copy this board's values into a flat array.
+     *
+     * @return {@code SIZE*SIZE} values in row-major order, {@code 0} for empty
+     */
+    public int[] toArray() {
+        int[] cells = new int[N];
+        for (int i = 0; i < N; i++) cells[i] = values[i];
+        return cells;
+    }
+
+    /**
+     * Independent copy of this board with the same values and the same givens.
+     *
+     * @return a new board equal to this one
+     */
+    public Board copy() {
+        return new Board(this, false);
+    }
+
+    /**
+     * Take a snapshot of this board: same values, same givens, same state.
+     *
+     * <p>The snapshot shares storage with this board until either of them is written, at
+     * which point the writer takes its own copy, so taking a snapshot allocates only the
+     * new board object (48 bytes on a 64-bit JVM with compressed oops, against 224 for
+     * {@link #copy()}) and copies nothing. Changes to either board are never visible in the other.
+     * A snapshot may be handed to another thread (through any safe hand-off, such as an
+     * executor) and read there while this board keeps being edited.</p>
+     *
+     * @return an independent board equal to this one
+     */
+    public Board snapshot() {
+        return new Board(this, true);
     }
 
     /**
@@ -100,39 +196,18 @@ public class Board {
 
     /**
      * Test whether placing {@code v} at (r,c) is legal under Sudoku rules.
-     * Does not mutate the board.
+     * Does not mutate the board. Runs in constant time.
      *
      * @param r row 0..SIZE-1
      * @param c col 0..SIZE-1
      * @param v digit 1..SIZE
      * @return {@code true} if no row, column, or BOXxBOX box conflict
-     * @throws IllegalArgumentException if {@code v} is out of range
      */
     public boolean isValidPlacement(int r, int c, int v) { // Check if provided addition is valid
-        boolean valid = true;
-        if(!inBounds(r, c) || v < 1 || v > SIZE) { valid = false; } 
+        boolean valid = inBounds(r, c) && v >= 1 && v <= SIZE;
         if(valid) {
-            for(int i = 0; i < SIZE; i++){ // Checks if provided number is already in the row or column it's attemping to be added to
-                if (grid[r][i].getValue() == v) {
-                    valid = false;
-                    break;
-                }
-                if (grid[i][c].getValue() == v) {
-                    valid = false;
-                    break;
-                }
-            }
-        }
-        if(valid){
-            int br = (r / BOX) * BOX, bc = (c/BOX) * BOX;
-            for (int rr = br; rr < br + BOX; rr++){ // Check the BOXxBOX box for existing value
-                for (int cc = bc; cc < bc + BOX; cc++){
-                    if (grid[rr][cc].getValue() == v){
-                        valid = false;
-                        break;
-                    }
-                }
-            }
+            int used = unitMasks[ROWS + r] | unitMasks[COLS + c] | unitMasks[BOXES + boxOf(r, c)];
+            valid = (used & (1 << (v - 1))) == 0;
         }
         return valid;
     }
@@ -148,10 +223,10 @@ public class Board {
     public boolean trySet(int r, int c, int v){ // Sets value if that cell isn't already given and the placement is valid
         boolean success = false;
         if (inBounds(r, c)){
-            var cell = grid[r][c];
-            if(!cell.isGiven()){
+            int i = r * SIZE + c;
+            if(!isGiven(i)){
                 if(isValidPlacement(r, c, v)){
-                    cell.setValue(v);
+                    write(i, v);
                     success = true;
                 }
             }
@@ -169,9 +244,9 @@ public class Board {
     public boolean tryClear(int r, int c){ // Tries to clear a specific cell
         boolean success = false;
         if(inBounds(r, c)){
-            var cell = grid[r][c];
-            if(!cell.isGiven()){
-                cell.clearValue();
+            int i = r * SIZE + c;
+            if(!isGiven(i)){
+                write(i, 0);
                 success = true;
             }
         }
@@ -179,32 +254,13 @@ public class Board {
     }
 
     /**
-     * Check if puzzle has been solved.
+     * Check if puzzle has been solved. Read-only and constant-time.
      * 
      * @return {@code true} if all cells are nonzero and the grid is internally consistent
      *         (no duplicates in any row, column, or box)
      */
     public boolean isSolved() { // Check if board is solved
-        boolean solved = true;
-        for (int r = 0; r < SIZE; r++){
-            for (int c = 0; c < SIZE; c++){
-                if(!grid[r][c].isGiven()){
-                    int v = grid[r][c].getValue();
-                    if (v == 0){
-                        solved = false;
-                        break;
-                    }
-                    grid[r][c].setValue(0); // Setting every point to 0 and then cylce through each cell to verify correct solution
-                    boolean ok = isValidPlacement(r, c, v);
-                    grid[r][c].setValue(v);
-                    if(!ok) {
-                        solved = false;
-                        break;
-                    }
-                }
-            }
-        }
-        return solved;
+        return filled == N && conflicts == 0;
     }
 
     /**
@@ -258,4 +314,73 @@ public class Board {
         }
         return new Board(start, givens);
     }
+
+    /* Cell access for Cell views */
+
+    int valueAt(int i) { // Value of the cell at row-major index i.
+        return values[i];
+    }
+
+    boolean isGiven(int i) { // Whether the cell at row-major index i is a given.
+        return i < 64 ? (givensLo >>> i & 1L) != 0 : (givensHi >>> (i - 64) & 1L) != 0;
+    }
+
+    void setValueAt(int i, int v) { // Writes an editable cell; givens are left unchanged.
+        if (v < 0 || v > SIZE) throw new IllegalArgumentException("Value " + v + " is out of range for the size of board");
+        if (!isGiven(i)) write(i, v);
+    }
+
+    /* Private Methods */
+
+    private void init(int i, int v, boolean given) { // Stores a starting value and its given flag.
+        write(i, v);
+        if (given) {
+            if (i < 64) givensLo |= 1L << i;
+            else givensHi |= 1L << (i - 64);
+        }
+    }
+
+    private void write(int i, int v) { // Stores v at index i, keeping masks and counters in step.
+        int old = values[i];
+        if (old == v) return;
+        if (shared) { // first write since a snapshot: stop sharing
+            values = values.clone();
+            unitMasks = unitMasks.clone();
+            shared = false;
+        }
+        int r = i / SIZE, c = i % SIZE, b = boxOf(r, c);
+        if (old != 0) {
+            values[i] = 0;
+            filled--;
+            removeFrom(ROWS + r, old);
+            removeFrom(COLS + c, old);
+            removeFrom(BOXES + b, old);
+        }
+        if (v != 0) {
+            int bit = 1 << (v - 1);
+            if ((unitMasks[ROWS + r] & bit) != 0) conflicts++;
+            if ((unitMasks[COLS + c] & bit) != 0) conflicts++;
+            if ((unitMasks[BOXES + b] & bit) != 0) conflicts++;
+            unitMasks[ROWS + r] |= bit;
+            unitMasks[COLS + c] |= bit;
+            unitMasks[BOXES + b] |= bit;
+            values[i] = (byte) v;
+            filled++;
+        }
+    }
+
+    private void removeFrom(int unit, int v) { // Drops v from a unit's mask unless another cell there still holds it.
+        boolean stillThere = false;
+        if (conflicts > 0) { // duplicates only exist while there are conflicts
+            for (int k = unit * SIZE; k < (unit + 1) * SIZE && !stillThere; k++) {
+                stillThere = values[UNIT_CELLS[k]] == v;
+            }
+        }
+        if (stillThere) conflicts--;
+        else unitMasks[unit] &= ~(1 << (v - 1));
+    }
+
+    private static int boxOf(int r, int c) { // Box index of (r,c), numbered row-major.
+        return (r / BOX) * BOX + (c / BOX);
+    }
 }
@@ -0,0 +1,67 @@
+package sudoku;
+
+import java.time.Duration;
+
+/**
+ * Cooperative stop signal for a {@link Solver} call, with an optional wall-clock deadline.
+ *
+ * <p>A token is cancelled once {@link #cancel()} has been called or its deadline has
+ * passed, and stays cancelled. Searches poll it every {@value #CHECK_INTERVAL} nodes, so a
+ * cancelled search stops within that many nodes and reports
+ * {@link SolveResult.Status#EXHAUSTED}. One token may be handed to several calls, for
+ * example all the analyses started for one request, and cancelled from any thread.</p>
+ */
+public final class CancellationToken {
+    static final int CHECK_INTERVAL = 1024; // search nodes between polls
+    private static final Duration MAX_TIMEOUT = Duration.ofDays(1); // keeps the deadline clear of nanoTime overflow
+
+    private final boolean timed;
+    private final long deadline; // System.nanoTime() value, when timed
+    private volatile boolean cancelled = false;
+
+    /**
+     * Create a token without a deadline; it is only cancelled by {@link #cancel()}.
+     */
+    public CancellationToken(){
+        this.timed = false;
+        this.deadline = 0;
+    }
+
+    private CancellationToken(long timeoutNanos){
+        this.timed = true;
+        this.deadline = System.nanoTime() + timeoutNanos;
+    }
+
+    /**
+     * Create a token that cancels itself once {@code timeout} has passed from now.
+     *
+     * @param timeout time allowed (negative counts as zero)
+     * @return a new token
+     */
+    public static CancellationToken withTimeout(Duration timeout){
+        if (timeout == null) throw new NullPointerException("Timeout is null");
+        if (timeout.isNegative()) return new CancellationToken(0);
+        return new CancellationToken(timeout.compareTo(MAX_TIMEOUT) > 0 ? MAX_TIMEOUT.toNanos() : timeout.toNanos());
+    }
+
+    /**
+     * Ask every search using this token to stop.
+     */
+    public void cancel(){
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether searches using this token should stop.
+     *
+     * @return {@code true} if cancelled or past the deadline
+     */
+    public boolean isCancelled(){
+        if (cancelled) return true;
+        if (timed && System.nanoTime() - deadline >= 0){
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,507 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Maps a board to the canonical representative of its class under the Sudoku symmetries.
+ *
+ * <p>Two boards are equivalent when one turns into the other by relabelling digits,
+ * permuting rows inside a band, permuting bands, permuting columns inside a stack,
+ * permuting stacks and transposing. The canonical form is the <em>minlex</em> member of
+ * the class: the smallest 81-character row-major string ({@code '0'} for empty) reachable
+ * by those moves, with digits relabelled in order of first appearance. Equivalent boards
+ * therefore have equal canonical forms, and {@link #fingerprint(Board)} hashes that form
+ * to 64 bits for use as a map key.</p>
+ *
+ * <p>The search builds the answer a row at a time and keeps only the transformations
+ * that tie for the smallest prefix so far. A candidate fixes the transposition, the rows
+ * chosen so far and the order of the stacks, but keeps the order of the columns inside
+ * each stack as a set of the orders still tied; each new row narrows those sets, and a
+ * candidate only splits where tied orders put different digits in the same places. The
+ * first row of the answer depends only on where its clues are, so only rows with the
+ * fewest, best-placed clues are tried for it. Sparse puzzles keep a handful of candidates.</p>
+ *
+ * <p>Solved grids (filled, with no digit repeated in a unit), whose first row always reads
+ * {@code 123456789}, would split on every column order at once there, so they take a
+ * separate path; filled grids with repeats go through the general search. With the first row
+ * fixed, the column order alone decides the relabelling, and the second row is the
+ * permutation taking each of its digits to that digit's column in the first row,
+ * conjugated by the order. Only 12096 such permutations exist, in 15 conjugacy classes, so
+ * the smallest second row and the column orders reaching it are worked out once per class
+ * and remembered. The rest of a tied candidate follows directly: every row starts with a
+ * different digit, so the remaining bands and their rows are just sorted by their first
+ * cell. Filled grids take a few microseconds each once an instance has seen every class,
+ * which costs it well under a second of warm-up; sparse puzzles take about ten.</p>
+ *
+ * <p>An instance keeps its work buffers between calls and is single-threaded; use one
+ * per thread.</p>
+ */
+public final class Canonicalizer {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int B = Board.BOX;
+    private static final int[][] PERM3 = { {0,1,2}, {0,2,1}, {1,0,2}, {1,2,0}, {2,0,1}, {2,1,0} };
+    private static final int ALL_ORDERS = (1 << (6 * B)) - 1; // every within-stack order allowed in every stack
+    private static final int ORDERS = 6 * 6 * 6 * 6; // stack-preserving column orders
+
+    private final int[] grids = new int[2 * N]; // the board and its transpose
+    private final int[] rowMask = new int[2 * Board.SIZE]; // clue bits per row, column c in bit c
+    private final int[] unitDigits = new int[3 * Board.SIZE]; // digits present per row, column, box
+    private final int[] firstKeys = new int[2 * Board.SIZE]; // smallest first-row clue pattern per source row
+    private final long[] rows = new long[Board.SIZE]; // canonical rows found so far, 4 bits per cell
+    private final int[][] groupDigits = new int[B][6]; // per stack slot: digit triples tied for the smallest
+    private final int[][] groupOrders = new int[B][6]; // per stack slot: within-stack orders giving each triple
+    private long best; // smallest key of the row being built
+
+    // Candidates tied for the smallest prefix, as parallel arrays (current and next level):
+    // transposed or not, rows used, stack order, allowed within-stack orders (6 bits per slot),
+    // digit labels (4 bits per digit) and the next unused label.
+    private int[] grid = new int[64], used = new int[64], order = new int[64], masks = new int[64], next = new int[64];
+    private long[] labels = new long[64];
+    private int[] grid2 = new int[64], used2 = new int[64], order2 = new int[64], masks2 = new int[64], next2 = new int[64];
+    private long[] labels2 = new long[64];
+    private int count, count2;
+
+    // Filled grids: the second row's minimal forms, memoized per column permutation (see minimalRow2),
+    // and the state of the candidate being completed.
+    private long[] rowKeys = new long[1 << 12];
+    private long[][] rowForms = new long[1 << 12][];
+    private int rowCount;
+    private final int[] sigma = new int[Board.SIZE];  // column of the first row holding each second-row digit
+    private final int[] cols = new int[Board.SIZE];   // column at each position of the candidate
+    private final int[] inverse = new int[Board.SIZE];
+    private final int[] bestGrid = new int[N];
+    private final int[] label = new int[Board.SIZE + 1];
+    private final int[] bandKey = new int[Board.SIZE];
+    private final int[] tiedRoots = new int[2 * Board.SIZE * (B - 1)];
+    private final long[][] tiedForms = new long[2 * Board.SIZE * (B - 1)][];
+    private boolean haveBest;
+    private boolean smaller; // candidate being completed is already below the best
+    private int srcBase, srcBand, srcFirst, srcSecond; // source grid offset and rows of the candidate
+
+    /**
+     * Canonical form of a board's current values.
+     *
+     * @param board board to canonicalize (not mutated)
+     * @return 81 characters, row-major, {@code '0'} for empty
+     */
+    public String canonicalForm(Board board) {
+        int[] out = new int[N];
+        canonicalize(board.toArray(), out);
+        char[] chars = new char[N];
+        for (int i = 0; i < N; i++) chars[i] = (char) ('0' + out[i]);
+        return new String(chars);
+    }
+
+    /**
+     * 64-bit fingerprint of a board's canonical form; equivalent boards share it.
+     *
+     * @param board board to fingerprint (not mutated)
+     * @return hash of the canonical form
+     */
+    public long fingerprint(Board board) {
+        int[] out = new int[N];
+        canonicalize(board.toArray(), out);
+        return hash(out);
+    }
+
+    /**
+     * Write the canonical form of a flat grid into {@code out}. Allocates nothing once the
+     * work buffers have grown to fit. Solved grids are slower on an instance's first calls,
+     * then take a few microseconds; see the class notes.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param out   destination with {@code SIZE*SIZE} entries; may be {@code cells}
+     * @throws IllegalArgumentException if either array has the wrong length or a value is out of range
+     */
+    public void canonicalize(int[] cells, int[] out) {
+        if (cells == null || out == null) throw new NullPointerException("Passed array is null");
+        if (cells.length != N || out.length != N) throw new IllegalArgumentException("Passed arrays must have " + N + " cells");
+        Arrays.fill(rowMask, 0);
+        Arrays.fill(unitDigits, 0);
+        for (int i = 0; i < N; i++) {
+            int v = cells[i];
+            if (v < 0 || v > Board.SIZE) throw new IllegalArgumentException("Value out of range at index " + i);
+            int r = i / Board.SIZE, c = i % Board.SIZE;
+            grids[i] = v;
+            grids[N + c * Board.SIZE + r] = v;
+            if (v != 0) {
+                rowMask[r] |= 1 << c;
+                rowMask[Board.SIZE + c] |= 1 << r;
+                int bit = 1 << (v - 1);
+                unitDigits[r] |= bit;
+                unitDigits[Board.SIZE + c] |= bit;
+                unitDigits[2 * Board.SIZE + (r / B) * B + c / B] |= bit;
+            }
+        }
+        boolean solved = true; // every unit holds every digit: a filled, valid grid
+        for (int u = 0; u < 3 * Board.SIZE; u++) solved &= unitDigits[u] == (1 << Board.SIZE) - 1;
+        if (solved) {
+            filledGrid(out);
+            return;
+        }
+        firstRow();
+        for (int level = 1; level < Board.SIZE; level++) nextRow(level);
+        for (int r = 0; r < Board.SIZE; r++) {
+            long key = rows[r];
+            for (int c = Board.SIZE - 1; c >= 0; c--) {
+                out[r * Board.SIZE + c] = (int) (key & 0xF);
+                key >>>= 4;
+            }
+        }
+    }
+
+    /**
+     * 64-bit hash of a canonical grid, as used by {@link #fingerprint(Board)}.
+     *
+     * @param canonical {@code SIZE*SIZE} values of a canonical form
+     * @return the fingerprint
+     */
+    public static long hash(int[] canonical) {
+        long h = 0xcbf29ce484222325L; // FNV-1a over the cells, then a final avalanche
+        for (int v : canonical) h = (h ^ v) * 0x100000001b3L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /* Private Methods */
+
+    private void filledGrid(int[] out) { // Minlex form of a valid grid without empty cells.
+        long bestRow2 = Long.MAX_VALUE;
+        int ties = 0;
+        int[] where = label; // scratch: column of each digit in the first row
+        for (int t = 0; t < 2; t++) {
+            for (int r1 = 0; r1 < Board.SIZE; r1++) {
+                for (int r2 = r1 / B * B; r2 < r1 / B * B + B; r2++) {
+                    if (r2 == r1) continue;
+                    int base = t * N;
+                    for (int c = 0; c < Board.SIZE; c++) where[grids[base + r1 * Board.SIZE + c]] = c;
+                    long key = 0;
+                    for (int c = 0; c < Board.SIZE; c++) key = key << 4 | where[grids[base + r2 * Board.SIZE + c]];
+                    long[] forms = minimalRow2(key);
+                    if (forms[0] > bestRow2) continue;
+                    if (forms[0] < bestRow2) {
+                        bestRow2 = forms[0];
+                        ties = 0;
+                    }
+                    tiedRoots[ties] = t << 8 | r1 << 4 | r2;
+                    tiedForms[ties++] = forms;
+                }
+            }
+        }
+        haveBest = false;
+        for (int k = 0; k < ties; k++) {
+            int root = tiedRoots[k];
+            srcBase = (root >>> 8) * N;
+            srcFirst = root >>> 4 & 15;
+            srcSecond = root & 15;
+            srcBand = srcFirst / B;
+            long[] forms = tiedForms[k];
+            for (int f = 1; f < forms.length; f++) {
+                long order = forms[f];
+                for (int q = Board.SIZE - 1; q >= 0; q--) {
+                    cols[q] = (int) (order & 0xF);
+                    order >>>= 4;
+                }
+                complete();
+            }
+        }
+        System.arraycopy(bestGrid, 0, out, 0, N);
+    }
+
+    /**
+     * Smallest second row reachable from a column permutation, with every column order that
+     * reaches it. {@code key} packs, 4 bits per column, the column of the first row holding
+     * the digit the second row has there. Once the column order is chosen the first row reads
+     * {@code 123456789}, so the second row is that permutation conjugated by the order, and
+     * only the permutation matters. Conjugate permutations share their smallest row, so the
+     * first permutation seen from a class is worked out over all {@code 6^4} column orders
+     * and the answer is remembered for the whole class.
+     *
+     * @return the row packed 4 bits per cell (0-based), followed by the tied column orders packed alike
+     */
+    private long[] minimalRow2(long key) {
+        long[] forms = lookupRow2(key);
+        if (forms == null) {
+            solveClass(key);
+            forms = lookupRow2(key);
+        }
+        return forms;
+    }
+
+    private void solveClass(long key) { // Smallest row of one permutation, remembered for all its conjugates.
+        for (int c = Board.SIZE - 1; c >= 0; c--) sigma[c] = (int) (key >>> (4 * (Board.SIZE - 1 - c)) & 0xF);
+        long best = Long.MAX_VALUE;
+        long[] tied = new long[8];
+        int n = 0;
+        for (int g = 0; g < ORDERS; g++) {
+            columnOrder(g, cols, inverse);
+            long row = 0, order = 0;
+            int q = 0;
+            for (; q < Board.SIZE; q++) {
+                row = row << 4 | inverse[sigma[cols[q]]];
+                if (row > best >>> (4 * (Board.SIZE - 1 - q))) break; // already larger than the best
+                order = order << 4 | cols[q];
+            }
+            if (q < Board.SIZE) continue;
+            if (row < best) {
+                best = row;
+                n = 0;
+            }
+            if (n == tied.length) tied = Arrays.copyOf(tied, 2 * n);
+            tied[n++] = order;
+        }
+        // Conjugating by an order R turns sigma into R^-1 sigma R, whose tied orders are R^-1 Q.
+        int[] r = new int[Board.SIZE], rInv = new int[Board.SIZE];
+        for (int g = 0; g < ORDERS; g++) {
+            columnOrder(g, r, rInv);
+            long conj = 0;
+            for (int x = 0; x < Board.SIZE; x++) conj = conj << 4 | rInv[sigma[r[x]]];
+            if (lookupRow2(conj) != null) continue;
+            long[] forms = new long[n + 1];
+            forms[0] = best;
+            for (int k = 0; k < n; k++) {
+                long order = 0;
+                for (int q = Board.SIZE - 1; q >= 0; q--) order = order << 4 | rInv[(int) (tied[k] >>> (4 * q) & 0xF)];
+                forms[k + 1] = order;
+            }
+            insertRow2(conj, forms);
+        }
+    }
+
+    private static void columnOrder(int g, int[] cols, int[] inverse) { // The g-th of the 6^4 stack-preserving column orders.
+        int s = g % PERM3.length;
+        for (int j = 0, w = g / PERM3.length; j < B; j++, w /= 6) {
+            for (int k = 0; k < B; k++) cols[j * B + k] = PERM3[s][j] * B + PERM3[w % 6][k];
+        }
+        for (int q = 0; q < Board.SIZE; q++) inverse[cols[q]] = q;
+    }
+
+    private long[] lookupRow2(long key) { // Remembered forms for a permutation, or null.
+        int mask = rowKeys.length - 1;
+        for (int h = slotOf(key, mask); rowForms[h] != null; h = (h + 1) & mask) {
+            if (rowKeys[h] == key) return rowForms[h];
+        }
+        return null;
+    }
+
+    private void insertRow2(long key, long[] forms) { // Remembers forms for a permutation not yet present.
+        if (++rowCount * 2 > rowKeys.length) {
+            long[] keys = rowKeys;
+            long[][] old = rowForms;
+            rowKeys = new long[keys.length * 2];
+            rowForms = new long[keys.length * 2][];
+            for (int i = 0; i < keys.length; i++) if (old[i] != null) place(keys[i], old[i]);
+        }
+        place(key, forms);
+    }
+
+    private void place(long key, long[] forms) { // Open addressing with linear probing.
+        int mask = rowKeys.length - 1;
+        int h = slotOf(key, mask);
+        while (rowForms[h] != null) h = (h + 1) & mask;
+        rowKeys[h] = key;
+        rowForms[h] = forms;
+    }
+
+    private static int slotOf(long key, int mask) { // Home slot of a permutation key.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+
+    private void complete() { // Builds the candidate for a finished column order row by row, keeping it if smallest.
+        int first = srcBase + srcFirst * Board.SIZE;
+        for (int p = 0; p < Board.SIZE; p++) label[grids[first + cols[p]]] = p + 1;
+        smaller = !haveBest;
+        if (!emit(srcSecond, 1)) return; // the first row always reads 123456789
+        if (!emit(srcBand * B + (B * (B - 1) / 2 - srcFirst % B - srcSecond % B), 2)) return; // rest of the band
+        for (int row = 0; row < Board.SIZE; row++) bandKey[row] = label[grids[srcBase + row * Board.SIZE + cols[0]]];
+        int done = 1 << srcBand, r = B;
+        for (int n = 1; n < B; n++) {
+            int pick = -1, key = Integer.MAX_VALUE;
+            for (int band = 0; band < B; band++) {
+                if ((done >>> band & 1) != 0) continue;
+                for (int k = 0; k < B; k++) {
+                    if (bandKey[band * B + k] < key) {
+                        key = bandKey[band * B + k];
+                        pick = band;
+                    }
+                }
+            }
+            done |= 1 << pick;
+            int x = pick * B, y = x + 1, z = x + 2; // rows of the band, sorted by first cell
+            if (bandKey[x] > bandKey[y]) { int t = x; x = y; y = t; }
+            if (bandKey[y] > bandKey[z]) { int t = y; y = z; z = t; }
+            if (bandKey[x] > bandKey[y]) { int t = x; x = y; y = t; }
+            if (!emit(x, r++) || !emit(y, r++) || !emit(z, r++)) return;
+        }
+        if (!smaller) return; // equal to the best: an automorphism
+        for (int i = 0; i < Board.SIZE; i++) bestGrid[i] = i + 1;
+        haveBest = true;
+    }
+
+    private boolean emit(int row, int r) { // Writes a relabelled source row as canonical row r; false once larger than the best.
+        int src = srcBase + row * Board.SIZE, dst = r * Board.SIZE;
+        if (smaller) {
+            for (int p = 0; p < Board.SIZE; p++) bestGrid[dst + p] = label[grids[src + cols[p]]];
+            return true;
+        }
+        for (int p = 0; p < Board.SIZE; p++) {
+            int v = label[grids[src + cols[p]]];
+            if (v != bestGrid[dst + p]) {
+                if (v > bestGrid[dst + p]) return false;
+                smaller = true; // from here on, overwrite the best in place
+                for (; p < Board.SIZE; p++) bestGrid[dst + p] = label[grids[src + cols[p]]];
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private void firstRow() { // Tries only source rows whose clues can give the smallest first row.
+        int bestPattern = Integer.MAX_VALUE;
+        for (int r = 0; r < 2 * Board.SIZE; r++) {
+            int m = rowMask[r];
+            int a = Integer.bitCount(m & 7), b = Integer.bitCount(m >>> 3 & 7), c = Integer.bitCount(m >>> 6 & 7);
+            int lo = Math.min(a, Math.min(b, c)), hi = Math.max(a, Math.max(b, c)), mid = a + b + c - lo - hi;
+            firstKeys[r] = ((1 << lo) - 1) << 6 | ((1 << mid) - 1) << 3 | ((1 << hi) - 1); // clues pushed right, sparse stacks first
+            bestPattern = Math.min(bestPattern, firstKeys[r]);
+        }
+        best = Long.MAX_VALUE;
+        count2 = 0;
+        for (int r = 0; r < 2 * Board.SIZE; r++) {
+            if (firstKeys[r] != bestPattern) continue;
+            int m = rowMask[r];
+            for (int s = 0; s < PERM3.length; s++) {
+                int c0 = Integer.bitCount(m >>> (B * PERM3[s][0]) & 7);
+                int c1 = Integer.bitCount(m >>> (B * PERM3[s][1]) & 7);
+                int c2 = Integer.bitCount(m >>> (B * PERM3[s][2]) & 7);
+                if (c0 <= c1 && c1 <= c2) extend(r / Board.SIZE, 0, s, ALL_ORDERS, r % Board.SIZE, 0, 0L, 0L, 1, 0);
+            }
+        }
+        finishRow(0);
+    }
+
+    private void nextRow(int level) { // Extends every candidate by each row it may take next.
+        best = Long.MAX_VALUE;
+        count2 = 0;
+        for (int i = 0; i < count; i++) {
+            int u = used[i];
+            int allowed = 0;
+            if (level % B == 0) { // new band: any row of a band not used yet
+                for (int b = 0; b < B; b++) if ((u >>> (b * B) & 7) == 0) allowed |= 7 << (b * B);
+            } else { // rest of the current band
+                for (int b = 0; b < B; b++) {
+                    int band = u >>> (b * B) & 7;
+                    if (band != 0 && band != 7) allowed = (~band & 7) << (b * B);
+                }
+            }
+            while (allowed != 0) {
+                int y = Integer.numberOfTrailingZeros(allowed);
+                allowed &= allowed - 1;
+                extend(grid[i], u, order[i], masks[i], y, 0, 0L, labels[i], next[i], 0);
+            }
+        }
+        finishRow(level);
+    }
+
+    /**
+     * Lays source row {@code y} out as the next canonical row, one stack slot at a time.
+     * At each slot the within-stack orders giving the smallest three labels are kept;
+     * orders that tie but put different digits in place are followed separately, since
+     * they label later rows differently. Candidates whose row is smallest so far are added
+     * to the next level.
+     */
+    private void extend(int t, int u, int s, int allowed, int y, int j, long key, long lab, int nextLabel, int kept) {
+        if (j == B) {
+            if (key < best) {
+                best = key;
+                count2 = 0;
+            }
+            add(t, u | 1 << y, s, kept, lab, nextLabel);
+            return;
+        }
+        int stack = PERM3[s][j];
+        int slotOrders = allowed >>> (6 * j) & 63;
+        if ((rowMask[t * Board.SIZE + y] >>> (B * stack) & 7) == 0) { // empty here: every order ties and labels nothing
+            long prefix = key << 12;
+            if (prefix > best >>> (12 * (B - 1 - j))) return;
+            extend(t, u, s, allowed, y, j + 1, prefix, lab, nextLabel, kept | slotOrders << (6 * j));
+            return;
+        }
+        int base = t * N + y * Board.SIZE + stack * B;
+        int[] digits = groupDigits[j], orders = groupOrders[j];
+        int min = Integer.MAX_VALUE, groups = 0;
+        for (int m = slotOrders; m != 0; m &= m - 1) {
+            int w = Integer.numberOfTrailingZeros(m);
+            int triple = grids[base + PERM3[w][0]] << 8 | grids[base + PERM3[w][1]] << 4 | grids[base + PERM3[w][2]];
+            long l = lab;
+            int n = nextLabel, k = 0;
+            for (int shift = 8; shift >= 0; shift -= 4) {
+                int d = triple >>> shift & 0xF, x = 0;
+                if (d != 0) {
+                    x = (int) (l >>> (4 * d) & 0xF);
+                    if (x == 0) {
+                        x = n++;
+                        l |= (long) x << (4 * d);
+                    }
+                }
+                k = (k << 4) | x;
+            }
+            if (k < min) {
+                min = k;
+                groups = 0;
+            }
+            if (k == min) {
+                int g = 0;
+                while (g < groups && digits[g] != triple) g++;
+                if (g == groups) {
+                    digits[groups] = triple;
+                    orders[groups++] = 0;
+                }
+                orders[g] |= 1 << w;
+            }
+        }
+        long prefix = key << 12 | min;
+        if (prefix > best >>> (12 * (B - 1 - j))) return; // already larger than the best row
+        for (int g = 0; g < groups; g++) {
+            long l = lab;
+            int n = nextLabel;
+            for (int shift = 8; shift >= 0; shift -= 4) {
+                int d = digits[g] >>> shift & 0xF;
+                if (d != 0 && (l >>> (4 * d) & 0xF) == 0) l |= (long) n++ << (4 * d);
+            }
+            extend(t, u, s, allowed, y, j + 1, prefix, l, n, kept | orders[g] << (6 * j));
+        }
+    }
+
+    private void finishRow(int level) { // Records the row and makes the next level current.
+        rows[level] = best;
+        int[] ti = grid; grid = grid2; grid2 = ti;
+        ti = used; used = used2; used2 = ti;
+        ti = order; order = order2; order2 = ti;
+        ti = masks; masks = masks2; masks2 = ti;
+        ti = next; next = next2; next2 = ti;
+        long[] tl = labels; labels = labels2; labels2 = tl;
+        count = count2;
+    }
+
+    private void add(int t, int u, int s, int m, long lab, int nextLabel) { // Appends a candidate for the next level.
+        if (count2 == grid2.length) {
+            int n = count2 * 2;
+            grid2 = Arrays.copyOf(grid2, n);
+            used2 = Arrays.copyOf(used2, n);
+            order2 = Arrays.copyOf(order2, n);
+            masks2 = Arrays.copyOf(masks2, n);
+            next2 = Arrays.copyOf(next2, n);
+            labels2 = Arrays.copyOf(labels2, n);
+        }
+        grid2[count2] = t;
+        used2[count2] = u;
+        order2[count2] = s;
+        masks2[count2] = m;
+        labels2[count2] = lab;
+        next2[count2++] = nextLabel;
+    }
+}
@@ -2,27 +2,28 @@ package sudoku;
 
 /**
  * A single cell on the Sudoku board.
- * Holds the current value and whether it was a given clue.
+ * Exposes the current value and whether it was a given clue.
+ *
+ * <p>A cell is a lightweight view over one position of its {@link Board}, created by
+ * {@link Board#cell(int, int)}: reads and writes go straight to the board's storage.</p>
  *
  * <p>Value {@code 0} means empty. Givens should not be changed by the UI.</p>
  */
 public class Cell {
-    private int value; // Value of cell
-    private final boolean given; // Whether cell was filled on creation
+    private final Board board; // Board holding the cell's state
+    private final int index; // Row-major position on the board
 
     /* Constructor */
 
     /**
-     * Construct a cell with an initial value and given flag.
-     * <p>Value {@code 0} means empty; {@code 1..Board.SIZE} are digits. This constructor
-     * does not validate, the range—callers should ensure the value is appropriate.</p>
+     * Construct a view of one cell of a board.
      *
-     * @param value the starting value (0 for empty, 1..Board.SIZE for a digit)
-     * @param given whether this cell is a fixed clue (true) or editable (false)
+     * @param board the board that stores the cell
+     * @param index row-major position {@code 0..Board.SIZE*Board.SIZE-1}
      */
-    public Cell(int value, boolean given){
-        this.value = value;
-        this.given = given;
+    Cell(Board board, int index){
+        this.board = board;
+        this.index = index;
     }
 
     /* Getter Methods */
@@ -32,14 +33,14 @@ public class Cell {
      * 
      * @return the cell's current value (0 for empty, otherwise 1...Board.SIZE)
      */
-    public int getValue() { return value; }
+    public int getValue() { return board.valueAt(index); }
 
     /**
      * Returns whether a cell's value was given in the initial puzzle or not.
      * 
      * @return {@code true} if this cell was part of the original puzzle (a given)
      */
-    public boolean isGiven() { return given; }
+    public boolean isGiven() { return board.isGiven(index); }
     
     /* Setter Method */
 
@@ -49,7 +50,7 @@ public class Cell {
      * @param v new value (0 to clear, or 1...Board.SIZE)
      */
     public void setValue(int value){
-        if(!given) this.value = value;
+        board.setValueAt(index, value);
     }
 
     /* Clear Methods */
@@ -60,9 +61,7 @@ public class Cell {
      * @return {@code true} if this cell was part of the original puzzle (a given)
      */
     public void clearValue() {
-        if(!given){
-            this.value = 0;
-        }
+        board.setValueAt(index, 0);
     }
 
     /**
@@ -73,6 +72,7 @@ public class Cell {
      */
     @Override
     public String toString() {
+        int value = getValue();
         return (value == 0) ? "." : Integer.toString(value);
     }
 }
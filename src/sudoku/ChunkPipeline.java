@@ -0,0 +1,106 @@
+package sudoku;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Read / process / collect loop shared by the headless batch tools.
+ *
+ * <p>Puzzles are read from a {@link PuzzleReader} into flat chunk buffers of
+ * {@value #CHUNK} puzzles, each chunk is processed on a fixed pool of worker threads, and
+ * the results are handed back in input order on the calling thread. Only
+ * {@value #CHUNKS_PER_THREAD} chunks per worker are ever in flight, so memory stays
+ * bounded no matter how large the input is. A worker failure is reported as an
+ * {@link IOException}.</p>
+ */
+final class ChunkPipeline {
+    /** Puzzles per chunk. */
+    static final int CHUNK = 4096;
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int CHUNKS_PER_THREAD = 2; // tasks in flight per worker
+
+    private ChunkPipeline() {}
+
+    /**
+     * Work done on a worker thread for one chunk.
+     *
+     * @param <R> per-chunk result
+     */
+    interface Task<R> {
+        /**
+         * Process a chunk.
+         *
+         * @param chunk {@code size} puzzles of {@code SIZE*SIZE} values, row-major; owned by the task
+         * @param size  number of puzzles in {@code chunk}
+         * @return the chunk's result
+         */
+        R process(int[] chunk, int size);
+    }
+
+    /**
+     * Consumer of chunk results, called on the thread running the pipeline, in input order.
+     *
+     * @param <R> per-chunk result
+     */
+    interface Sink<R> {
+        /**
+         * Take the result of the next chunk.
+         *
+         * @param result the chunk's result
+         * @throws IOException if the result cannot be written
+         */
+        void accept(R result) throws IOException;
+    }
+
+    /**
+     * Run every puzzle of {@code in} through {@code task} and feed the results to {@code sink}.
+     *
+     * @param in      puzzle source
+     * @param threads number of worker threads (at least one is used)
+     * @param task    per-chunk work, run on the workers
+     * @param sink    per-chunk results, in input order
+     * @param <R>     per-chunk result
+     * @return number of puzzles read
+     * @throws IOException if reading fails, a worker fails or the sink fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    static <R> long run(PuzzleReader in, int threads, Task<R> task, Sink<R> sink)
+            throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        Deque<Future<R>> pending = new ArrayDeque<>();
+        int maxPending = Math.max(1, threads) * CHUNKS_PER_THREAD;
+        long count = 0;
+        try {
+            boolean more = true;
+            while (more) {
+                int[] chunk = new int[CHUNK * N];
+                int filled = 0;
+                while (filled < CHUNK && (more = in.next(chunk, filled * N))) filled++;
+                if (filled == 0) break;
+                count += filled;
+                if (pending.size() == maxPending) sink.accept(await(pending.removeFirst()));
+                int size = filled;
+                pending.addLast(pool.submit(() -> task.process(chunk, size)));
+            }
+            while (!pending.isEmpty()) sink.accept(await(pending.removeFirst()));
+        } finally {
+            pool.shutdownNow();
+        }
+        return count;
+    }
+
+    /* Private Methods */
+
+    private static <R> R await(Future<R> f) throws InterruptedException, IOException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Worker failed", e.getCause());
+        }
+    }
+}
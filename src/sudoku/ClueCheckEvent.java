@@ -0,0 +1,41 @@
+package sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted by {@link Generator#generateUnique(int, int)} each time it
+ * checks whether a clue can be removed without losing uniqueness.
+ */
+@Name("sudoku.ClueCheck")
+@Label("Sudoku Clue Check")
+@Category({ "Sudoku", "Generator" })
+@Description("Uniqueness check for one candidate clue removal")
+@StackTrace(false)
+final class ClueCheckEvent extends jdk.jfr.Event {
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Cell")
+    @Description("Row-major index of the clue tried")
+    int cell;
+
+    @Label("Clues")
+    @Description("Givens before the removal")
+    int clues;
+
+    @Label("Removed")
+    @Description("Whether the puzzle stayed unique and the clue was removed")
+    boolean removed;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsedNanos;
+}
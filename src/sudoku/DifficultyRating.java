@@ -0,0 +1,69 @@
+package sudoku;
+
+import sudoku.DifficultyRater.Technique;
+
+/**
+ * Immutable outcome of a {@link DifficultyRater} rating.
+ *
+ * <p>Holds the hardest technique the puzzle needed, a numeric score, whether the
+ * techniques were enough to solve it, and how many times each technique was applied.
+ * Ratings can be freely shared between threads.</p>
+ */
+public final class DifficultyRating {
+    private final Technique hardest;
+    private final int score;
+    private final boolean solved;
+    private final int[] steps;
+
+    /**
+     * Create a rating.
+     *
+     * @param hardest hardest technique applied, or {@code null} if the puzzle was already full
+     * @param score   sum of the weights of every step taken
+     * @param solved  whether the puzzle was solved without guessing
+     * @param steps   applications per technique, indexed by ordinal (copied)
+     */
+    DifficultyRating(Technique hardest, int score, boolean solved, int[] steps) {
+        this.hardest = hardest;
+        this.score = score;
+        this.solved = solved;
+        this.steps = steps.clone();
+    }
+
+    /**
+     * Hardest technique the puzzle needed. {@link Technique#TRIAL_AND_ERROR} means the
+     * rater's techniques ran out before the puzzle was solved.
+     *
+     * @return hardest technique, or {@code null} if there was nothing to solve
+     */
+    public Technique getHardest() { return hardest; }
+
+    /**
+     * Numeric difficulty: the sum of {@link Technique#getWeight()} over every step taken.
+     * Grows both with how hard the steps are and with how many of them there are.
+     *
+     * @return the score
+     */
+    public int getScore() { return score; }
+
+    /**
+     * Returns whether the puzzle was solved by the rater's techniques alone.
+     *
+     * @return {@code true} if no guessing is needed
+     */
+    public boolean isSolved() { return solved; }
+
+    /**
+     * Number of times a technique was applied. Each placement counts for the singles;
+     * for the other techniques each round of eliminations counts once.
+     *
+     * @param t technique to ask about
+     * @return applications of {@code t}
+     */
+    public int getSteps(Technique t) { return steps[t.ordinal()]; }
+
+    @Override
+    public String toString() {
+        return (hardest == null ? "none" : hardest.getLabel()) + " (score " + score + ")";
+    }
+}
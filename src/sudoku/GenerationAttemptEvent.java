@@ -0,0 +1,44 @@
+package sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted by {@link Generator#generateUnique(int, int)} for each
+ * generation attempt: one solved grid and the clue removals made on it.
+ */
+@Name("sudoku.GenerationAttempt")
+@Label("Sudoku Generation Attempt")
+@Category({ "Sudoku", "Generator" })
+@Description("One attempt at carving a unique puzzle out of a solved grid")
+@StackTrace(false)
+final class GenerationAttemptEvent extends jdk.jfr.Event {
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Target Clues")
+    int targetClues;
+
+    @Label("Clues")
+    @Description("Givens left when the attempt finished")
+    int clues;
+
+    @Label("Checks")
+    @Description("Clue-removal uniqueness checks made")
+    int checks;
+
+    @Label("Nodes")
+    @Description("Search nodes visited across all checks")
+    long nodes;
+
+    @Label("Unique")
+    boolean unique;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsedNanos;
+}
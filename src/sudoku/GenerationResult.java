@@ -0,0 +1,78 @@
+package sudoku;
+
+/**
+ * Outcome of a deadline-bounded generation, see {@link Generator#generateWithin(int, java.time.Duration)}.
+ *
+ * <p>Holds the best puzzle found in time, which always has a unique solution, together
+ * with how many givens it has, how many were asked for and how many attempts were
+ * started. The puzzle is a {@link Board}, so a result should not be shared between
+ * threads once the board is played on.</p>
+ */
+public final class GenerationResult {
+    private final Board board;
+    private final int clues;
+    private final int targetClues;
+    private final int attempts;
+
+    /**
+     * Create a result.
+     *
+     * @param board       the puzzle
+     * @param clues       number of givens in {@code board}
+     * @param targetClues number of givens asked for (after clamping)
+     * @param attempts    generation attempts started
+     */
+    GenerationResult(Board board, int clues, int targetClues, int attempts) {
+        this.board = board;
+        this.clues = clues;
+        this.targetClues = targetClues;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Gets the puzzle.
+     *
+     * @return a {@link Board} with a unique solution
+     */
+    public Board getBoard() { return board; }
+
+    /**
+     * Gets the number of givens the puzzle has.
+     *
+     * @return given count
+     */
+    public int getClues() { return clues; }
+
+    /**
+     * Gets the number of givens that was asked for, clamped to {@code [17,81]}.
+     *
+     * @return target given count
+     */
+    public int getTargetClues() { return targetClues; }
+
+    /**
+     * How many givens the puzzle has above the target.
+     *
+     * @return {@code 0} if the target was reached, otherwise the extra givens
+     */
+    public int getShortfall() { return Math.max(0, clues - targetClues); }
+
+    /**
+     * Returns whether the puzzle reached the clue target before the deadline.
+     *
+     * @return {@code true} if {@link #getShortfall()} is {@code 0}
+     */
+    public boolean isOnTarget() { return clues <= targetClues; }
+
+    /**
+     * Gets the number of generation attempts started, including unfinished ones.
+     *
+     * @return attempts started
+     */
+    public int getAttempts() { return attempts; }
+
+    @Override
+    public String toString() {
+        return clues + " givens (target " + targetClues + ", " + attempts + " attempts)";
+    }
+}
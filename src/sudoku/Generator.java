@@ -1,176 +1,559 @@
 package sudoku;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Utility class responsible for creating valid Sudoku puzzles.
  * <p>
  * A puzzle is generated in two main steps:
  * <ol>
- *   <li>First, a completely solved Board.SIZE×Board.SIZE grid is produced using a randomized
- *       backtracking algorithm.</li>
- *   <li>Then, values are selectively removed while checking with
- *       {@link sudoku.Solver} to ensure that the resulting puzzle still has
+ *   <li>First, a completely solved Board.SIZE×Board.SIZE grid is taken from a
+ *       {@link GridSource}, which relabels and permutes grids found by randomized
+ *       backtracking.</li>
+ *   <li>Then, values are selectively removed while checking that no other
+ *       digit can take a removed value's place, so the resulting puzzle still has
  *       a <strong>unique solution</strong>.</li>
  * </ol>
  * The amount of starting clues and the number of regeneration attempts can
  * be controlled through method parameters.
  * <p>
- * All methods are static since the generator maintains no state.
+ * Each attempt emits a {@code sudoku.GenerationAttempt} Flight Recorder event and each
+ * clue-removal check a {@code sudoku.ClueCheck} event, so slow attempts can be found in a
+ * JFR recording.
+ * <p>
+ * {@link #generateUniqueParallel(int, int)} races attempts on all cores and returns as
+ * soon as one reaches the clue target.
+ * {@link #generateWithin(int, Duration)} races them against a wall-clock deadline instead
+ * and returns the best puzzle found in time, so its latency is bounded.
+ * <p>
+ * {@link #generateRated(int, DifficultyRater.Technique, DifficultyRater.Technique, int)}
+ * keeps generating until a {@link DifficultyRater} finds a puzzle that needs the
+ * requested techniques.
+ * <p>
+ * Every puzzle comes from a 64-bit seed. A generation keeps one {@link GridSource}, fed by
+ * the first {@link SplittableRandom#split()} of the seed's generator, and attempt
+ * {@code n} takes the {@code n}-th grid from it and draws the rest of its randomness from
+ * the next split. Grids and streams are handed out in attempt order, so the attempts are
+ * independent of which thread runs them, and the same seed and clue count always produce
+ * the same puzzle, sequential or parallel. A puzzle can therefore be stored or sent as its
+ * seed and regenerated on demand.
+ * <p>
+ * A source searches its first 16 base grids by backtracking and only then starts
+ * transforming them (see {@link GridSource}), so an attempt's grid is cheap only once its
+ * generation has made that many attempts: long races such as
+ * {@link #generateWithin(int, Duration)} and the candidates of {@link #generateRated(int,
+ * DifficultyRater.Technique, DifficultyRater.Technique, int)}. A generation that succeeds
+ * within a few attempts still runs one grid search per attempt.
+ * <p>
+ * All methods are static since the generator maintains no state; the only shared
+ * resource is the pool of daemon helper threads used by the parallel variant.
  */
 public final class Generator {
-    private static final Random RNG = new Random();
+    /** Attempt budget used by the game front ends for one puzzle, in the GUI and the CLI. */
+    public static final int DEFAULT_ATTEMPTS = 6;
+    private static final long SEARCH_LIMIT = 1000000;
+    private static final long QUICK_LIMIT = 1000; // nodes the light search gets before propagation takes over
+    private static final Duration MAX_BUDGET = Duration.ofDays(1); // keeps the deadline clear of nanoTime overflow
 
     /**
      * Generates a fully solved {@code SIZE × SIZE} Sudoku grid.
      * <p>
-     * The grid is produced by a randomized backtracking search, so repeated calls
-     * will usually yield different valid solutions.
+     * The grid is found by randomized backtracking, so repeated calls will usually yield
+     * different valid solutions. Every call makes a new {@link GridSource} and takes one
+     * grid from it, which is always a search; callers that need many grids should keep a
+     * {@link GridSource} and take them from it.
      *
      * @return a new solved grid, where each entry is in {@code 1..9}
      */
     public static int[][] generateSolvedGrid(){
+        return generateSolvedGrid(newSeed());
+    }
+
+    /**
+     * Generates the fully solved grid for a seed; the same seed always gives the same grid.
+     * Like {@link #generateSolvedGrid()}, this runs one backtracking search per call.
+     *
+     * @param seed random seed
+     * @return a new solved grid, where each entry is in {@code 1..9}
+     */
+    public static int[][] generateSolvedGrid(long seed){
+        final int N = Board.SIZE * Board.SIZE;
+        int[] grid = new int[N];
+        new GridSource(seed).next(grid);
         int[][] g = new int[Board.SIZE][Board.SIZE];
-        fill(g, 0);
+        for (int i = 0; i < N; i++) g[i / Board.SIZE][i % Board.SIZE] = grid[i];
         return g;
     }
 
+    /**
+     * Picks a fresh random seed for the seeded generation methods.
+     *
+     * @return a seed drawn from the calling thread's {@link ThreadLocalRandom}
+     */
+    public static long newSeed(){
+        return ThreadLocalRandom.current().nextLong();
+    }
+
     /**
      * Generates a Sudoku puzzle with a unique solution.
      * <p>
-     * The method repeatedly:
+     * The method:
      * <ol>
      *   <li>Generates a full solution grid.</li>
-     *   <li>Encodes it as a value string and a mask of givens.</li>
+     *   <li>Starts with every cell as a given.</li>
      *   <li>Randomly removes givens (down to {@code minClues}) while
      *       checking that the resulting puzzle still has a unique solution.</li>
      * </ol>
-     * If a unique puzzle cannot be produced within {@code maxAttempts},
-     * an exception is thrown.
+     * Because the full solution is known, a removal keeps the puzzle unique exactly when
+     * no solution puts a different digit in the emptied cell. Each check is therefore one
+     * search with the old digit ruled out at that cell, run on a single reused
+     * {@link IterativeSolver} that tries the known solution's digits first, so a second
+     * solution (which mostly agrees with the first) turns up within a few nodes. A search
+     * that runs past a small node budget without an answer is finished by a
+     * {@link PropagatingSolver}. No board or string is built per check.
+     * <p>
+     * Every removal is proven safe, so each attempt yields a unique puzzle, but at low clue
+     * counts an attempt often gets stuck a few givens above {@code minClues}. Attempts are
+     * made one after another until one reaches {@code minClues}; if none of
+     * {@code maxAttempts} does, the one with the fewest givens is returned.
+     * If {@code maxAttempts} is less than 1, an exception is thrown.
      *
      * @param minClues    minimum number of givens to preserve (clamped to {@code [17,81]})
-     * @param maxAttempts maximum number of generation attempts before failing
+     * @param maxAttempts maximum number of generation attempts
      * @return a {@link Board} representing a puzzle with a unique solution
-     * @throws IllegalStateException if a unique puzzle cannot be generated in time
+     * @throws IllegalArgumentException if {@code maxAttempts} is less than 1
      */
     public static Board generateUnique(int minClues, int maxAttempts){
-        minClues = Math.max(17, Math.min(81, minClues));
-        for (int attempt = 0; attempt < maxAttempts; attempt++){
-            int[][] solved = generateSolvedGrid();
-
-            char[] values = new char[Board.SIZE*Board.SIZE];
-            char[] mask   = new char[Board.SIZE*Board.SIZE];
-            for (int i = 0; i < values.length; i++){
-                int r = i / Board.SIZE, c = i % Board.SIZE;
-                values[i] = (char)('0' + solved[r][c]);
-                mask[i]   = '1';
-            }
+        return generateUnique(newSeed(), minClues, maxAttempts);
+    }
 
-            List<Integer> order = new ArrayList<>(values.length);
-            for (int i = 0; i < values.length; i++) order.add(i);
-            Collections.shuffle(order, RNG);
-
-            int clues = 81;
-            for (int pos : order){
-                if (clues > minClues){
-                    char savedVal = values[pos];
-                    values[pos] = '0';
-                    mask[pos]   = '0';
-
-                    Board base = Board.fromString(new String(values), new String(mask));
-                    for (int r = 0; r < Board.SIZE; r++){
-                        for (int c = 0; c < Board.SIZE; c++){
-                            if (!base.cell(r,c).isGiven()) base.cell(r,c).setValue(0);
-                        }
-                    }
-
-                    Solver.solveBoard(base);
-                    boolean unique = (Solver.getSolvedBoardCopy() != null);
-
-                    if (unique){
-                        clues--;
-                    } else {
-                        values[pos] = savedVal;
-                        mask[pos]   = '1';
-                    }
-                }
-            }
+    /**
+     * Generates the unique puzzle for a seed, as {@link #generateUnique(int, int)} does.
+     * <p>
+     * The result depends only on the seed, the clamped clue count and, when no attempt
+     * reaches {@code minClues}, on {@code maxAttempts}: an attempt that reaches the target
+     * within {@code maxAttempts} is returned again for any larger budget.
+     *
+     * @param seed        random seed
+     * @param minClues    minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param maxAttempts maximum number of generation attempts
+     * @return a {@link Board} representing a puzzle with a unique solution
+     * @throws IllegalArgumentException if {@code maxAttempts} is less than 1
+     */
+    public static Board generateUnique(long seed, int minClues, int maxAttempts){
+        if (maxAttempts < 1) throw new IllegalArgumentException("Attempts must be at least 1");
+        SplittableRandom streams = new SplittableRandom(seed);
+        return generateUnique(streams, new GridSource(streams.split()), minClues, maxAttempts);
+    }
 
-            Board finalBase = Board.fromString(new String(values), new String(mask));
-            for (int r = 0; r < Board.SIZE; r++){
-                for (int c = 0; c < Board.SIZE; c++){
-                    if (!finalBase.cell(r,c).isGiven()) finalBase.cell(r,c).setValue(0);
-                }
-            }
-            Solver.solveBoard(finalBase);
-            if (Solver.getSolvedBoardCopy() != null){
-                return Board.fromString(new String(values), new String(mask));
+    /**
+     * Runs a sequential generation that takes its grids from {@code grids}.
+     *
+     * @param streams     splitter for the attempts' random streams
+     * @param grids       source of the attempts' solved grids
+     * @param minClues    minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param maxAttempts maximum number of generation attempts (at least 1)
+     * @return the fewest-clue puzzle of the attempts
+     */
+    private static Board generateUnique(SplittableRandom streams, GridSource grids, int minClues, int maxAttempts){
+        Race race = new Race(streams, grids, Math.max(17, Math.min(81, minClues)), maxAttempts, -1);
+        race.run();
+        return race.result();
+    }
+
+    /**
+     * Generates a Sudoku puzzle with a unique solution, racing attempts on all cores.
+     * <p>
+     * Works like {@link #generateUnique(int, int)}, but the calling thread and one helper
+     * thread per additional core each take attempts from the same budget of
+     * {@code maxAttempts}. As soon as an attempt reaches {@code minClues}, no new attempts
+     * start and every later-numbered attempt still running notices within one clue check
+     * and abandons its grid. Earlier-numbered attempts run to the end, so the puzzle
+     * returned is the same one {@link #generateUnique(long, int, int)} gives for the seed.
+     * On a single core this is the same as {@link #generateUnique(int, int)}.
+     *
+     * @param minClues    minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param maxAttempts maximum number of generation attempts, across all threads
+     * @return a {@link Board} representing a puzzle with a unique solution
+     * @throws IllegalArgumentException if {@code maxAttempts} is less than 1
+     */
+    public static Board generateUniqueParallel(int minClues, int maxAttempts){
+        return generateUniqueParallel(newSeed(), minClues, maxAttempts);
+    }
+
+    /**
+     * Generates the unique puzzle for a seed, racing attempts on all cores as
+     * {@link #generateUniqueParallel(int, int)} does. Returns the same puzzle as
+     * {@link #generateUnique(long, int, int)} with the same arguments.
+     *
+     * @param seed        random seed
+     * @param minClues    minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param maxAttempts maximum number of generation attempts, across all threads
+     * @return a {@link Board} representing a puzzle with a unique solution
+     * @throws IllegalArgumentException if {@code maxAttempts} is less than 1
+     */
+    public static Board generateUniqueParallel(long seed, int minClues, int maxAttempts){
+        if (maxAttempts < 1) throw new IllegalArgumentException("Attempts must be at least 1");
+        Race race = new Race(new SplittableRandom(seed), Math.max(17, Math.min(81, minClues)), maxAttempts, -1);
+        return race(race, Math.min(maxAttempts - 1, Racers.THREADS));
+    }
+
+    /**
+     * Generates the best unique puzzle it can within a wall-clock budget.
+     * <p>
+     * Attempts are raced on all cores as in {@link #generateUniqueParallel(int, int)},
+     * with no limit on their number, until one reaches {@code targetClues} or the budget
+     * runs out. At the deadline no new attempt starts and the attempts still running stop
+     * within one clue check, each keeping the givens it had: every removal is proven safe,
+     * so an unfinished attempt is a unique puzzle too, just with more givens. The puzzle
+     * with the fewest givens is returned, and the result reports how far above the target
+     * it is. Even a budget of zero yields a puzzle, since the first attempt always runs.
+     * <p>
+     * Unlike the attempt-bounded methods, the result depends on timing and is not
+     * reproducible from a seed.
+     *
+     * @param targetClues number of givens to aim for (clamped to {@code [17,81]})
+     * @param budget      how long to keep generating
+     * @return the best puzzle found, with its given count and shortfall
+     */
+    public static GenerationResult generateWithin(int targetClues, Duration budget){
+        if (budget == null) throw new NullPointerException("Budget is null");
+        long nanos = budget.isNegative() ? 0 : budget.compareTo(MAX_BUDGET) > 0 ? MAX_BUDGET.toNanos() : budget.toNanos();
+        int target = Math.max(17, Math.min(81, targetClues));
+        Race race = new Race(new SplittableRandom(newSeed()), target, Integer.MAX_VALUE, nanos);
+        Board board = race(race, Racers.THREADS);
+        return new GenerationResult(board, race.bestClues(), target, race.attempts());
+    }
+
+    /**
+     * Generates a unique puzzle whose hardest required solving technique lies in a range.
+     * <p>
+     * Candidates are drawn one after another, each a single generation attempt with its
+     * own random stream, and rated with a {@link DifficultyRater}. All candidates take
+     * their solved grids from one {@link GridSource}. The first candidate whose hardest technique is between
+     * {@code easiest} and {@code hardest} is returned; if none of {@code maxPuzzles} is,
+     * the one closest to the range is. Clue count and difficulty are only loosely related,
+     * so {@code minClues} should suit the range (low counts for the hard techniques).
+     *
+     * @param minClues   minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param easiest    easiest acceptable hardest technique
+     * @param hardest    hardest acceptable hardest technique
+     * @param maxPuzzles maximum number of candidates to generate and rate
+     * @return a {@link Board} representing a puzzle with a unique solution
+     * @throws IllegalArgumentException if {@code easiest} is harder than {@code hardest}, or
+     *                                  {@code maxPuzzles} is less than 1
+     */
+    public static Board generateRated(int minClues, DifficultyRater.Technique easiest,
+                                      DifficultyRater.Technique hardest, int maxPuzzles){
+        return generateRated(newSeed(), minClues, easiest, hardest, maxPuzzles);
+    }
+
+    /**
+     * Generates the rated puzzle for a seed, as {@link #generateRated(int,
+     * DifficultyRater.Technique, DifficultyRater.Technique, int)} does. The candidates'
+     * grids and streams come from {@code seed}, so the same arguments give the same puzzle.
+     *
+     * @param seed       random seed
+     * @param minClues   minimum number of givens to preserve (clamped to {@code [17,81]})
+     * @param easiest    easiest acceptable hardest technique
+     * @param hardest    hardest acceptable hardest technique
+     * @param maxPuzzles maximum number of candidates to generate and rate
+     * @return a {@link Board} representing a puzzle with a unique solution
+     * @throws IllegalArgumentException if {@code easiest} is harder than {@code hardest}, or
+     *                                  {@code maxPuzzles} is less than 1
+     */
+    public static Board generateRated(long seed, int minClues, DifficultyRater.Technique easiest,
+                                      DifficultyRater.Technique hardest, int maxPuzzles){
+        if (easiest == null || hardest == null) throw new NullPointerException("Technique is null");
+        if (easiest.compareTo(hardest) > 0) throw new IllegalArgumentException("Easiest technique is harder than hardest");
+        if (maxPuzzles < 1) throw new IllegalArgumentException("Puzzles must be at least 1");
+        SplittableRandom streams = new SplittableRandom(seed);
+        GridSource grids = new GridSource(streams.split());
+        DifficultyRater rater = new DifficultyRater();
+        Board best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int k = 0; k < maxPuzzles && bestDistance > 0; k++){
+            Board candidate = generateUnique(streams.split(), grids, minClues, 1);
+            DifficultyRater.Technique t = rater.rate(candidate).getHardest();
+            int level = (t == null) ? -1 : t.ordinal();
+            int distance = Math.max(0, Math.max(easiest.ordinal() - level, level - hardest.ordinal()));
+            if (distance < bestDistance){
+                best = candidate;
+                bestDistance = distance;
             }
         }
-        throw new IllegalStateException("Could not generate a unique puzzle in time");
+        return best;
+    }
+
+    /**
+     * Runs a race on the calling thread and up to {@code helpers} pooled threads.
+     *
+     * @param race    race to run
+     * @param helpers number of helper threads to ask for
+     * @return the race's result once every attempt has finished or stopped
+     */
+    private static Board race(Race race, int helpers){
+        List<Future<?>> queued = new ArrayList<>(Math.max(0, helpers));
+        try {
+            for (int k = 0; k < helpers; k++) queued.add(Racers.POOL.submit(race::help));
+        } catch (RejectedExecutionException ex) {
+            // No helpers available; the caller runs the attempts alone.
+        }
+        race.run();
+        // Every attempt has been started, so helpers still queued behind another generation
+        // would have nothing to do; drop them and only wait for the ones already running.
+        for (Future<?> f : queued) f.cancel(false);
+        try {
+            race.awaitHelpers(); // later attempts stop within a check; earlier ones decide the result
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            race.stop();
+        }
+        return race.result();
     }
 
     /**
-     * Recursive backtracking helper that fills the grid with a complete solution.
+     * One generation attempt: fills a grid and removes clues down to {@code minClues}.
      * <p>
-     * Cells are filled in order. At each step it tries a shuffled list
-     * of digits and recurses.
+     * The race is asked before every clue check whether an earlier attempt has already
+     * won, so a lost race costs at most one more check. Past the race's deadline the
+     * attempt stops removing clues and returns the unique puzzle it has so far; a check
+     * still running at the deadline gives up within {@value CancellationToken#CHECK_INTERVAL}
+     * nodes and keeps its clue.
      *
-     * @param g     the partially filled grid
-     * @param index linear index in {@code 0..(SIZE*SIZE)} indicating which cell to fill
-     * @return {@code true} if a complete solution was found, {@code false} otherwise
+     * @param minClues number of givens to stop at (already clamped)
+     * @param attempt  attempt number within the race
+     * @param puzzle   this attempt's solved grid, row-major; the clues are removed from it in place
+     * @param rng      this attempt's own random stream
+     * @param race     race the attempt belongs to
+     * @return the puzzle in row-major order, {@code 0} for empty, or {@code null} if stopped
      */
-    private static boolean fill(int[][] g, int index){
-        boolean finished = false;
-        if (index == Board.SIZE * Board.SIZE) {
-            finished = true;   
-        } else {
-            int r = index / Board.SIZE, c = index % Board.SIZE;
-
-            List<Integer> digits = new ArrayList<>(9);
-            for (int d = 1; d <= Board.SIZE; d++) digits.add(d);
-            Collections.shuffle(digits, RNG);
-
-            for (int d : digits){
-                if (verifyPlacement(g, r, c, d)){
-                    g[r][c] = d;
-                    if (fill(g, index+1)) {
-                        finished = true;
-                    } else {
-                        g[r][c] = 0;
-                    }   
+    private static int[] attempt(int minClues, int attempt, int[] puzzle, SplittableRandom rng, Race race){
+        final int N = Board.SIZE * Board.SIZE;
+        IterativeSolver search = new IterativeSolver(QUICK_LIMIT);
+        GenerationAttemptEvent attemptEvent = new GenerationAttemptEvent();
+        attemptEvent.begin();
+        long attemptStart = System.nanoTime();
+        int checks = 0;
+        long nodes = 0;
+        search.prefer(puzzle.clone()); // every cell starts as a given
+
+        int[] order = new int[N];
+        for (int i = 0; i < N; i++) order[i] = i;
+        shuffle(order, rng);
+
+        int clues = N;
+        for (int pos : order){
+            if (clues > minClues){
+                if (race.isBeaten(attempt)) return null;
+                if (race.isExpired()) break;
+                ClueCheckEvent checkEvent = new ClueCheckEvent();
+                checkEvent.begin();
+                long checkStart = System.nanoTime();
+
+                int value = puzzle[pos];
+                int bit = 1 << (value - 1);
+                puzzle[pos] = 0;
+                search.load(puzzle);
+                search.ban(pos, bit); // any solution with another digit here breaks uniqueness
+                boolean unique = search.countSolutions(1) == 0;
+                long checkNodes = search.getSearchCount();
+                if (unique && search.isSearchLimitHit()){ // hard proof: let propagation settle it
+                    PropagatingSolver ps = new PropagatingSolver(puzzle, SEARCH_LIMIT);
+                    ps.setCancellation(race.deadline()); // a check cut short keeps the clue
+                    ps.ban(pos, bit);
+                    unique = ps.countSolutions(1) == 0 && !ps.isSearchLimitHit();
+                    checkNodes += ps.getSearchCount();
+                }
+                checks++;
+                nodes += checkNodes;
+
+                if (unique){
+                    clues--;
+                } else {
+                    puzzle[pos] = value;
+                }
+
+                checkEvent.end();
+                if (checkEvent.shouldCommit()){
+                    checkEvent.elapsedNanos = System.nanoTime() - checkStart;
+                    checkEvent.attempt = attempt;
+                    checkEvent.cell = pos;
+                    checkEvent.clues = unique ? clues + 1 : clues;
+                    checkEvent.removed = unique;
+                    checkEvent.nodes = checkNodes;
+                    checkEvent.commit();
                 }
             }
         }
-        return finished;
+
+        attemptEvent.end();
+        if (attemptEvent.shouldCommit()){
+            attemptEvent.elapsedNanos = System.nanoTime() - attemptStart;
+            attemptEvent.attempt = attempt;
+            attemptEvent.targetClues = minClues;
+            attemptEvent.clues = clues;
+            attemptEvent.checks = checks;
+            attemptEvent.nodes = nodes;
+            attemptEvent.unique = true; // every removal was proven safe
+            attemptEvent.commit();
+        }
+        return puzzle;
     }
 
     /**
-     * Checks whether placing digit {@code d} at cell {@code (r, c)} is legal
-     * under Sudoku rules for the current partial grid.
-     *
-     * @param g the grid to test against
-     * @param r row index
-     * @param c column index
-     * @param d candidate digit to place
-     * @return {@code true} if {@code d} does not already appear in the row,
-     *         column, or box; {@code false} otherwise
+     * Shared state of one generation: the seed's stream splitter and grid source, the
+     * attempt budget, the optional deadline, the best puzzle so far and the lowest attempt number that reached
+     * the target.
+     * {@link #run()} may be called from several threads at once.
+     * <p>
+     * Attempts are numbered and given their grids and random streams in the same order, and the
+     * result is the finished puzzle with the fewest givens, ties going to the lower
+     * attempt number, so it does not depend on thread timing unless there is a deadline.
      */
-    private static boolean verifyPlacement(int[][] g, int r, int c, int d){
-        boolean success = true;
-        for (int i = 0; i < Board.SIZE; i++){
-            if (g[r][i] == d) success = false;
-            if (g[i][c] == d) success = false;
-        }
-        int br = (r/Board.BOX)*Board.BOX, bc = (c/Board.BOX)*Board.BOX;
-        for (int rr = br; rr < br + Board.BOX; rr++){
-            for (int cc = bc; cc < bc + Board.BOX; cc++){
-                if (g[rr][cc] == d) success = false;
+    private static final class Race implements Runnable {
+        private final SplittableRandom streams; // guarded by this
+        private final GridSource grids; // guarded by this
+        private final int minClues;
+        private final int maxAttempts;
+        private final CancellationToken deadline; // null without a deadline
+        private final AtomicInteger winner = new AtomicInteger(Integer.MAX_VALUE);
+        private int started = 0; // guarded by this
+        private int[] best = null; // guarded by this
+        private int bestClues = Integer.MAX_VALUE; // guarded by this
+        private int bestAttempt = Integer.MAX_VALUE; // guarded by this
+        private int helpers = 0; // pooled threads inside help(), guarded by this
+        private boolean closed = false; // no more helpers may join, guarded by this
+        private Throwable failure = null; // first helper failure, guarded by this
+
+        Race(SplittableRandom streams, int minClues, int maxAttempts, long budgetNanos) { // negative budget = no deadline
+            this(streams, new GridSource(streams.split()), minClues, maxAttempts, budgetNanos);
+        }
+
+        Race(SplittableRandom streams, GridSource grids, int minClues, int maxAttempts, long budgetNanos) {
+            this.streams = streams;
+            this.grids = grids;
+            this.minClues = minClues;
+            this.maxAttempts = maxAttempts;
+            this.deadline = budgetNanos >= 0 ? CancellationToken.withTimeout(Duration.ofNanos(budgetNanos)) : null;
+        }
+
+        @Override
+        public void run() {
+            while (true){
+                int n;
+                int[] grid = new int[Board.SIZE * Board.SIZE];
+                SplittableRandom rng;
+                synchronized (this){
+                    n = started;
+                    if (n >= maxAttempts || n > winner.get() || (n > 0 && isExpired())) return;
+                    started++;
+                    grids.next(grid);
+                    rng = streams.split();
+                }
+                int[] puzzle = attempt(minClues, n, grid, rng, this);
+                if (puzzle != null) offer(n, puzzle);
+            }
+        }
+
+        void help() { // Entry point for pooled helpers; does nothing once the race is closed.
+            synchronized (this){
+                if (closed) return;
+                helpers++;
+            }
+            try {
+                run();
+            } catch (RuntimeException | Error ex) {
+                synchronized (this){
+                    if (failure == null) failure = ex;
+                }
+                stop();
+            } finally {
+                synchronized (this){
+                    if (--helpers == 0) notifyAll();
+                }
             }
         }
-        return success;
+
+        synchronized void awaitHelpers() throws InterruptedException { // Closes the race to new helpers and waits for the running ones.
+            closed = true;
+            while (helpers > 0) wait();
+            if (failure != null) throw new IllegalStateException("Generation attempt failed", failure);
+        }
+
+        boolean isBeaten(int attempt) { // Whether an earlier attempt already reached the target.
+            return winner.get() < attempt;
+        }
+
+        boolean isExpired() { // Whether the deadline has passed.
+            return deadline != null && deadline.isCancelled();
+        }
+
+        CancellationToken deadline() { // Token cancelled at the deadline, or null without one.
+            return deadline;
+        }
+
+        void stop() {
+            winner.set(-1);
+        }
+
+        synchronized int bestClues() { // Givens of the best puzzle so far.
+            return bestClues;
+        }
+
+        synchronized int attempts() { // Attempts started so far.
+            return started;
+        }
+
+        synchronized Board result() { // Fewest-clue puzzle of the finished attempts.
+            if (best == null) throw new IllegalStateException("Could not generate a unique puzzle in time");
+            int[][] start = new int[Board.SIZE][Board.SIZE];
+            for (int i = 0; i < best.length; i++) start[i / Board.SIZE][i % Board.SIZE] = best[i];
+            return new Board(start);
+        }
+
+        private synchronized void offer(int attempt, int[] puzzle) { // Keeps the puzzle if it beats the best so far.
+            int clues = 0;
+            for (int v : puzzle) if (v != 0) clues++;
+            if (clues < bestClues || (clues == bestClues && attempt < bestAttempt)){
+                best = puzzle;
+                bestClues = clues;
+                bestAttempt = attempt;
+            }
+            if (clues <= minClues) winner.accumulateAndGet(attempt, Math::min);
+        }
+    }
+
+    /** Daemon helper threads for {@link #generateUniqueParallel(int, int)}, one per spare core. */
+    private static final class Racers {
+        static final int THREADS = Runtime.getRuntime().availableProcessors() - 1;
+        static final ExecutorService POOL;
+
+        static {
+            AtomicInteger n = new AtomicInteger();
+            POOL = Executors.newFixedThreadPool(Math.max(1, THREADS), r -> {
+                Thread t = new Thread(r, "generator-race-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private static void shuffle(int[] a, SplittableRandom rng){ // Fisher-Yates shuffle in place.
+        for (int i = a.length - 1; i > 0; i--){
+            int j = rng.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
     }
 }
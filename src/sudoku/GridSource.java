@@ -0,0 +1,192 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Fast source of random solved grids, built by transforming searched grids.
+ *
+ * <p>Any solved grid stays solved under these transformations:</p>
+ * <ul>
+ *   <li>relabelling the digits (any permutation of 1..SIZE)</li>
+ *   <li>permuting the rows inside each band of {@code BOX} rows, and the bands themselves</li>
+ *   <li>permuting the columns inside each stack, and the stacks themselves</li>
+ *   <li>transposing the grid</li>
+ * </ul>
+ * <p>Together they map one grid to up to {@code 9! * 6^8 * 2} (about 3&times;10<sup>12</sup>)
+ * others, its equivalence class; there are about 5.5&times;10<sup>9</sup> classes. Each
+ * source keeps its own pool of up to {@value #POOL_SIZE} base grids, found by randomized
+ * backtracking ({@link #search(SplittableRandom)}) from the source's own random stream, and
+ * {@link #next(int[])} applies a random combination of the transformations to one of them.
+ * The first {@value #POOL_SIZE} calls each search a new base grid, so a short-lived source
+ * (such as the one {@link Generator#generateSolvedGrid(long)} makes per call) always yields
+ * a grid from a freshly searched class and costs as much as a search. After that, every
+ * {@value #REFRESH_INTERVAL}th call replaces a random base grid with a new one, so a
+ * long-lived source keeps reaching new classes while paying for a search only once per
+ * {@value #REFRESH_INTERVAL} grids; the other calls cost a couple of dozen random numbers
+ * and one pass over the cells. This trades some variety (a run of grids shares
+ * {@value #POOL_SIZE} classes) for throughput. A source's output depends only on its
+ * random stream.</p>
+ *
+ * <p>Instances are single-threaded; give each thread its own, for example from
+ * {@link SplittableRandom#split()}.</p>
+ */
+public final class GridSource {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int ALL = (1 << Board.SIZE) - 1;
+    private static final int POOL_SIZE = 16;        // base grids kept per source
+    private static final int REFRESH_INTERVAL = 64; // grids handed out per base grid replaced
+
+    private final SplittableRandom rng;
+    private final int[] digits = new int[Board.SIZE + 1]; // relabelling, indexed by old digit
+    private final int[] rows = new int[Board.SIZE];       // source row for each target row
+    private final int[] cols = new int[Board.SIZE];       // source column for each target column
+    private final int[] bands = new int[Board.BOX];       // scratch for band/stack orders
+    private final int[] masks = new int[3 * Board.SIZE];  // row, column and box masks while searching
+    private final int[][] bases = new int[POOL_SIZE][];   // base grids, filled on demand
+    private int based = 0;                                // base grids searched so far, up to POOL_SIZE
+    private int sinceRefresh = 0;                         // grids handed out since the last replacement
+
+    /**
+     * Create a source seeded with {@code seed}; the same seed gives the same grids.
+     *
+     * @param seed random seed
+     */
+    public GridSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Create a source drawing from {@code rng}, which it then owns.
+     *
+     * @param rng random stream
+     */
+    public GridSource(SplittableRandom rng) {
+        if (rng == null) throw new NullPointerException("Random stream is null");
+        this.rng = rng;
+    }
+
+    /**
+     * Write a random solved grid into {@code out}. Allocates nothing once the pool of base
+     * grids is full.
+     *
+     * @param out destination with {@code SIZE*SIZE} entries, row-major
+     * @throws IllegalArgumentException if {@code out} has the wrong length
+     */
+    public void next(int[] out) {
+        int[] base;
+        if (based < POOL_SIZE) {
+            base = bases[based++] = new int[N];
+            searchInto(base, masks, rng);
+        } else if (++sinceRefresh == REFRESH_INTERVAL) {
+            sinceRefresh = 0;
+            base = bases[rng.nextInt(POOL_SIZE)];
+            searchInto(base, masks, rng);
+        } else {
+            base = bases[rng.nextInt(POOL_SIZE)];
+        }
+        transform(base, out);
+    }
+
+    /**
+     * Write a random transformation of a solved grid into {@code out}. Allocates nothing.
+     * The result is solved whenever {@code grid} is.
+     *
+     * @param grid source grid, {@code SIZE*SIZE} values row-major (not mutated)
+     * @param out  destination with {@code SIZE*SIZE} entries; must not be {@code grid}
+     * @throws IllegalArgumentException if either array has the wrong length or they are the same array
+     */
+    public void transform(int[] grid, int[] out) {
+        if (grid == null || out == null) throw new NullPointerException("Passed array is null");
+        if (grid.length != N || out.length != N) throw new IllegalArgumentException("Passed arrays must have " + N + " cells");
+        if (grid == out) throw new IllegalArgumentException("Source and destination must differ");
+        digits[0] = 0;
+        for (int d = 1; d <= Board.SIZE; d++) digits[d] = d;
+        shuffle(digits, 1, Board.SIZE);
+        lines(rows);
+        lines(cols);
+        boolean transpose = rng.nextBoolean();
+        for (int r = 0; r < Board.SIZE; r++) {
+            for (int c = 0; c < Board.SIZE; c++) {
+                int src = transpose ? cols[c] * Board.SIZE + rows[r] : rows[r] * Board.SIZE + cols[c];
+                out[r * Board.SIZE + c] = digits[grid[src]];
+            }
+        }
+    }
+
+    /**
+     * Find a solved grid by randomized backtracking: cells are filled in order, trying the
+     * available digits in a random order at each one. Much slower than a pooled
+     * {@link #next(int[])}; used for the base grids.
+     *
+     * @param rng source of the digit orders
+     * @return a new solved grid, {@code SIZE*SIZE} values row-major
+     */
+    public static int[] search(SplittableRandom rng) {
+        if (rng == null) throw new NullPointerException("Random stream is null");
+        int[] grid = new int[N];
+        searchInto(grid, new int[3 * Board.SIZE], rng);
+        return grid;
+    }
+
+    /* Private Methods */
+
+    private void lines(int[] map) { // Random line order: bands shuffled, then lines within each band.
+        for (int b = 0; b < Board.BOX; b++) bands[b] = b;
+        shuffle(bands, 0, Board.BOX);
+        for (int b = 0; b < Board.BOX; b++) {
+            int base = b * Board.BOX;
+            for (int k = 0; k < Board.BOX; k++) map[base + k] = bands[b] * Board.BOX + k;
+            shuffle(map, base, Board.BOX);
+        }
+    }
+
+    private void shuffle(int[] a, int from, int length) { // Fisher-Yates on a[from .. from+length).
+        for (int i = length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int t = a[from + i];
+            a[from + i] = a[from + j];
+            a[from + j] = t;
+        }
+    }
+
+    private static void searchInto(int[] grid, int[] masks, SplittableRandom rng) { // Overwrites grid with a searched solved grid.
+        Arrays.fill(masks, 0);
+        fill(grid, 0, masks, rng);
+    }
+
+    /**
+     * Recursive backtracking helper that fills the grid with a complete solution.
+     * <p>
+     * Cells are filled in order. At each step it picks the digits still allowed by the
+     * row, column and box masks in a random order and recurses.
+     *
+     * @param g     the partially filled grid, row-major
+     * @param index linear index in {@code 0..(SIZE*SIZE)} indicating which cell to fill
+     * @param masks used digits per row, then per column, then per box
+     * @param rng   source of the digit orders
+     * @return {@code true} if a complete solution was found, {@code false} otherwise
+     */
+    private static boolean fill(int[] g, int index, int[] masks, SplittableRandom rng){
+        if (index == N) return true;
+        int r = index / Board.SIZE, c = index % Board.SIZE;
+        int row = r, col = Board.SIZE + c, box = 2 * Board.SIZE + (r / Board.BOX) * Board.BOX + c / Board.BOX;
+        int free = ALL & ~(masks[row] | masks[col] | masks[box]);
+        while (free != 0){
+            int pick = free;
+            for (int k = rng.nextInt(Integer.bitCount(free)); k > 0; k--) pick &= pick - 1; // drop k lowest digits
+            int bit = pick & -pick;
+            free ^= bit;
+            g[index] = Integer.numberOfTrailingZeros(bit) + 1;
+            masks[row] |= bit;
+            masks[col] |= bit;
+            masks[box] |= bit;
+            if (fill(g, index + 1, masks, rng)) return true;
+            masks[row] ^= bit;
+            masks[col] ^= bit;
+            masks[box] ^= bit;
+        }
+        g[index] = 0;
+        return false;
+    }
+}
@@ -0,0 +1,270 @@
+package sudoku;
+
+/**
+ * Allocation-free, non-recursive search engine on flat primitive state.
+ *
+ * <p>The grid lives in a {@code byte[SIZE*SIZE]} next to row/column/box bitmasks, and the
+ * search keeps its own explicit stack of (cell, remaining candidates) frames instead of
+ * recursing, so its depth is bounded by the number of cells rather than by the thread's
+ * stack. Each step branches on the open cell with the fewest candidates.</p>
+ *
+ * <p>All buffers are allocated once in the constructor. An instance can be reused for
+ * any number of puzzles via {@link #load(int[])}, and neither {@code load} nor
+ * {@link #countSolutions(int)} allocates anything, so steady-state solving produces no
+ * garbage. Instances are single-threaded.</p>
+ */
+public final class IterativeSolver implements SudokuSearch {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int ALL = (1 << Board.SIZE) - 1;
+    private static final int[] ROW_OF = new int[N];
+    private static final int[] COL_OF = new int[N];
+    private static final int[] BOX_OF = new int[N];
+
+    static {
+        for (int i = 0; i < N; i++) {
+            int r = i / Board.SIZE, c = i % Board.SIZE;
+            ROW_OF[i] = r;
+            COL_OF[i] = c;
+            BOX_OF[i] = (r / Board.BOX) * Board.BOX + (c / Board.BOX);
+        }
+    }
+
+    private final byte[] cells = new byte[N];
+    private final int[] rowMask = new int[Board.SIZE];
+    private final int[] colMask = new int[Board.SIZE];
+    private final int[] boxMask = new int[Board.SIZE];
+    private final int[] stackCell = new int[N];    // trail: cell decided at each depth
+    private final int[] stackOptions = new int[N]; // candidates not yet tried at each depth
+    private final int[] solution = new int[N];
+    private final int[] banned = new int[N]; // digit bits ruled out per cell on top of the masks
+    private final long searchLimit;
+
+    private boolean consistent = false;
+    private boolean solved = false;
+    private int pickedOptions = 0; // candidates of the cell last returned by pickCell()
+    private long searchCount = 0;
+    private long backtrackCount = 0;
+    private CancellationToken cancellation = null;
+    private long nextCheck = 0; // searchCount past which outOfBudget() is asked
+    private boolean cancelled = false;
+    private int[] preferred = null; // digit to try first per cell, or null for lowest-first
+
+    /**
+     * Create a reusable engine with no puzzle loaded.
+     *
+     * @param searchLimit maximum number of search nodes per count before giving up
+     */
+    public IterativeSolver(long searchLimit) {
+        this.searchLimit = searchLimit;
+    }
+
+    /**
+     * Create an engine and load a puzzle into it.
+     *
+     * @param start       {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param searchLimit maximum number of search nodes per count before giving up
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value
+     */
+    public IterativeSolver(int[] start, long searchLimit) {
+        this(searchLimit);
+        load(start);
+    }
+
+    /**
+     * Replace the current puzzle. Allocates nothing.
+     *
+     * @param start {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value
+     */
+    public void load(int[] start) {
+        if (start == null) throw new NullPointerException("Passed array is null");
+        if (start.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        for (int u = 0; u < Board.SIZE; u++) {
+            rowMask[u] = 0;
+            colMask[u] = 0;
+            boxMask[u] = 0;
+        }
+        boolean ok = true;
+        for (int i = 0; i < N; i++) {
+            banned[i] = 0;
+            int v = start[i];
+            if (v < 0 || v > Board.SIZE) {
+                consistent = false;
+                throw new IllegalArgumentException("Value out of range at index " + i);
+            }
+            cells[i] = (byte) v;
+            if (v != 0) {
+                int bit = 1 << (v - 1);
+                if (((rowMask[ROW_OF[i]] | colMask[COL_OF[i]] | boxMask[BOX_OF[i]]) & bit) != 0) ok = false; // clue clashes with another clue
+                rowMask[ROW_OF[i]] |= bit;
+                colMask[COL_OF[i]] |= bit;
+                boxMask[BOX_OF[i]] |= bit;
+            }
+        }
+        consistent = ok;
+        solved = false;
+    }
+
+    /**
+     * Rule out digits at an empty cell of the loaded puzzle, so the next counts only see
+     * solutions that put some other digit there. Cleared by {@link #load(int[])}.
+     *
+     * @param cell   row-major index of the cell
+     * @param digits bit {@code d-1} set for each digit {@code d} to rule out
+     */
+    void ban(int cell, int digits) {
+        banned[cell] |= digits;
+    }
+
+    /**
+     * Try each cell's digit from {@code grid} before its other candidates. A search for a
+     * solution other than {@code grid} then stays next to it and only strays where it must,
+     * which is where a second solution, if any, is found.
+     *
+     * @param grid complete grid in row-major order, or {@code null} for lowest-digit-first
+     */
+    void prefer(int[] grid) {
+        this.preferred = grid;
+    }
+
+    @Override
+    public int countSolutions(int limit) {
+        if (limit < 1) limit = 1;
+        searchCount = 0;
+        nextCheck = (cancellation == null) ? searchLimit : 0;
+        cancelled = false;
+        backtrackCount = 0;
+        solved = false;
+        if (!consistent) return 0;
+
+        int found = 0;
+        int depth = 0;
+        boolean descend = true;
+        while (true) {
+            if (descend) {
+                if (++searchCount > nextCheck && outOfBudget()) break;
+                int cell = pickCell();
+                if (cell < 0) { // grid full
+                    if (found++ == 0) {
+                        for (int i = 0; i < N; i++) solution[i] = cells[i];
+                        solved = true;
+                    }
+                    if (found >= limit) break;
+                } else if (pickedOptions != 0) {
+                    stackCell[depth] = cell;
+                    stackOptions[depth] = pickedOptions;
+                    depth++;
+                } else {
+                    backtrackCount++;
+                }
+            }
+            if (depth == 0) break; // tree exhausted
+            int top = depth - 1;
+            int cell = stackCell[top];
+            if (cells[cell] != 0) unplace(cell);
+            int options = stackOptions[top];
+            if (options == 0) { // frame exhausted: pop and retry the parent
+                depth--;
+                descend = false;
+            } else {
+                int bit = options & -options;
+                if (preferred != null) {
+                    int p = 1 << (preferred[cell] - 1);
+                    if ((options & p) != 0) bit = p;
+                }
+                stackOptions[top] = options ^ bit;
+                place(cell, bit);
+                descend = true;
+            }
+        }
+        while (depth > 0) { // unwind after an early stop so the loaded puzzle is intact
+            int cell = stackCell[--depth];
+            if (cells[cell] != 0) unplace(cell);
+        }
+        return found;
+    }
+
+    @Override
+    public int[] getSolution() {
+        return solved ? solution.clone() : null;
+    }
+
+    /**
+     * Copy the first solution found by the last count into {@code out} without allocating.
+     *
+     * @param out destination with at least {@code SIZE*SIZE} entries
+     * @return {@code true} if a solution was copied; {@code false} if none was found
+     */
+    public boolean copySolution(int[] out) {
+        if (solved) System.arraycopy(solution, 0, out, 0, N);
+        return solved;
+    }
+
+    @Override
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    @Override
+    public long getPropagationCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean isSearchLimitHit() {
+        return searchCount > searchLimit || cancelled;
+    }
+
+    @Override
+    public void setCancellation(CancellationToken token) {
+        this.cancellation = token;
+    }
+
+    /* Private Methods */
+
+    private boolean outOfBudget() { // True once out of nodes or cancelled; otherwise schedules the next poll.
+        if (searchCount > searchLimit || cancelled) return true;
+        if (cancellation != null && cancellation.isCancelled()) {
+            cancelled = true;
+            return true;
+        }
+        nextCheck = Math.min(searchLimit, searchCount + CancellationToken.CHECK_INTERVAL);
+        return false;
+    }
+
+    private int pickCell() { // Open cell with the fewest candidates, or -1 when the grid is full.
+        int best = -1, bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < N && bestCount > 1; i++) {
+            if (cells[i] == 0) {
+                int options = ALL & ~(rowMask[ROW_OF[i]] | colMask[COL_OF[i]] | boxMask[BOX_OF[i]] | banned[i]);
+                int count = Integer.bitCount(options);
+                if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                    pickedOptions = options;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void place(int cell, int bit) {
+        cells[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+        rowMask[ROW_OF[cell]] |= bit;
+        colMask[COL_OF[cell]] |= bit;
+        boxMask[BOX_OF[cell]] |= bit;
+    }
+
+    private void unplace(int cell) {
+        int bit = 1 << (cells[cell] - 1);
+        cells[cell] = 0;
+        rowMask[ROW_OF[cell]] ^= bit;
+        colMask[COL_OF[cell]] ^= bit;
+        boxMask[BOX_OF[cell]] ^= bit;
+    }
+}
@@ -0,0 +1,301 @@
+package sudoku;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fork/join search engine for counting the solutions of sparse, heavily under-constrained
+ * boards.
+ *
+ * <p>The search tree is split at its first few branching cells: at each of the top
+ * {@code splitDepth} levels the cell with the fewest candidates is chosen and one
+ * {@link ForkJoinPool} task is forked per candidate digit. Below that, each task counts
+ * its subtree sequentially with row/column/box bitmasks, and work stealing evens out
+ * subtrees of very different sizes. All tasks add into one shared total and stop as soon
+ * as it reaches the caller's limit, so a limit-bounded count finishes early.</p>
+ *
+ * <p>The node budget is shared by all tasks. Every {@value CancellationToken#CHECK_INTERVAL}
+ * nodes a task publishes its nodes and solutions, and at the same point checks the shared
+ * total, the budget and the {@link CancellationToken}; once the budget runs out or the token
+ * is cancelled every task stops and {@link #isSearchLimitHit()} reports it. The search
+ * itself runs on the pool, but an instance is meant for one caller at a time like the other
+ * engines; create one per search.</p>
+ */
+public final class ParallelCounter implements SudokuSearch {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int ALL = (1 << Board.SIZE) - 1;
+    private static final int DEFAULT_SPLIT_DEPTH = 3;
+    private static final int FLUSH_EVERY = 256; // solutions counted locally before publishing
+
+    private final int[] cells = new int[N];
+    private final boolean consistent;
+    private final long searchLimit;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    private Run last = null; // shared state of the last countSolutions call
+    private CancellationToken cancellation = null;
+
+    /**
+     * Prepare a search on the common pool that splits the top {@value #DEFAULT_SPLIT_DEPTH} levels.
+     *
+     * @param start       {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param searchLimit maximum number of search nodes, across all tasks, before the search gives up
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value
+     */
+    public ParallelCounter(int[] start, long searchLimit) {
+        this(start, searchLimit, ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Prepare a search.
+     *
+     * @param start       {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param searchLimit maximum number of search nodes, across all tasks, before the search gives up
+     * @param pool        pool that runs the counting tasks
+     * @param splitDepth  number of branching levels that are forked into separate tasks
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value,
+     *                                  or {@code splitDepth} is negative
+     */
+    public ParallelCounter(int[] start, long searchLimit, ForkJoinPool pool, int splitDepth) {
+        if (start == null) throw new NullPointerException("Passed array is null");
+        if (pool == null) throw new NullPointerException("Pool is null");
+        if (start.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        if (splitDepth < 0) throw new IllegalArgumentException("Split depth must not be negative");
+        this.searchLimit = searchLimit;
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+        int[] rows = new int[Board.SIZE], cols = new int[Board.SIZE], boxes = new int[Board.SIZE];
+        boolean ok = true;
+        for (int i = 0; i < N; i++) {
+            int v = start[i];
+            if (v < 0 || v > Board.SIZE) throw new IllegalArgumentException("Value out of range at index " + i);
+            cells[i] = v;
+            if (v != 0) {
+                int bit = 1 << (v - 1);
+                int r = i / Board.SIZE, c = i % Board.SIZE, b = boxOf(i);
+                if (((rows[r] | cols[c] | boxes[b]) & bit) != 0) ok = false; // clue clashes with another clue
+                rows[r] |= bit;
+                cols[c] |= bit;
+                boxes[b] |= bit;
+            }
+        }
+        this.consistent = ok;
+    }
+
+    @Override
+    public int countSolutions(int limit) {
+        if (limit < 1) limit = 1;
+        Run run = new Run(limit, searchLimit, cancellation);
+        last = run;
+        if (!consistent) return 0;
+        Node root = new Node(run, cells.clone(), 0);
+        for (int i = 0; i < N; i++) {
+            int v = cells[i];
+            if (v != 0) {
+                int bit = 1 << (v - 1);
+                root.rows[i / Board.SIZE] |= bit;
+                root.cols[i % Board.SIZE] |= bit;
+                root.boxes[boxOf(i)] |= bit;
+            }
+        }
+        pool.invoke(root);
+        return (int) Math.min(run.total.get(), limit);
+    }
+
+    @Override
+    public int[] getSolution() {
+        int[] solution = (last == null) ? null : last.solution.get();
+        return solution == null ? null : solution.clone();
+    }
+
+    @Override
+    public long getSearchCount() {
+        return (last == null) ? 0 : last.nodes.get();
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return (last == null) ? 0 : last.backtracks.get();
+    }
+
+    @Override
+    public long getPropagationCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean isSearchLimitHit() {
+        return last != null && last.cutOff;
+    }
+
+    @Override
+    public void setCancellation(CancellationToken token) {
+        this.cancellation = token;
+    }
+
+    /* Private Methods */
+
+    private static int boxOf(int cell) {
+        int r = cell / Board.SIZE, c = cell % Board.SIZE;
+        return (r / Board.BOX) * Board.BOX + (c / Board.BOX);
+    }
+
+    /** State shared by every task of one {@link #countSolutions(int)} call. */
+    private static final class Run {
+        final AtomicLong total = new AtomicLong();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong backtracks = new AtomicLong();
+        final AtomicReference<int[]> solution = new AtomicReference<>();
+        final long limit;
+        final long searchLimit;
+        final CancellationToken token;
+        volatile boolean cutOff = false; // out of nodes or cancelled
+
+        Run(long limit, long searchLimit, CancellationToken token) {
+            this.limit = limit;
+            this.searchLimit = searchLimit;
+            this.token = token;
+        }
+
+        /** @return {@code true} once the search should stop everywhere */
+        boolean stop() {
+            if (cutOff || total.get() >= limit) return true;
+            if (nodes.get() > searchLimit || (token != null && token.isCancelled())) {
+                cutOff = true;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One subtree of the search. Forks a child per candidate while above the split depth,
+     * otherwise counts its subtree in place.
+     */
+    private final class Node extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Run run;
+        final int[] cells;
+        final int[] rows = new int[Board.SIZE];
+        final int[] cols = new int[Board.SIZE];
+        final int[] boxes = new int[Board.SIZE];
+        final int depth;
+        private long pending = 0; // solutions not yet added to the shared total
+        private long nodes = 0; // nodes not yet added to the shared count
+        private long backtracks = 0;
+
+        Node(Run run, int[] cells, int depth) {
+            this.run = run;
+            this.cells = cells;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (run.stop()) return;
+            if (depth < splitDepth) {
+                split();
+            } else {
+                dfs();
+                publish();
+            }
+        }
+
+        private void split() {
+            run.nodes.incrementAndGet();
+            int cell = pickCell();
+            if (cell < 0) {
+                run.solution.compareAndSet(null, cells.clone());
+                run.total.incrementAndGet();
+                return;
+            }
+            int r = cell / Board.SIZE, c = cell % Board.SIZE, b = boxOf(cell);
+            int options = ALL & ~(rows[r] | cols[c] | boxes[b]);
+            if (options == 0) {
+                run.backtracks.incrementAndGet();
+                return;
+            }
+            Node[] children = new Node[Integer.bitCount(options)];
+            int n = 0;
+            while (options != 0) {
+                int bit = options & -options;
+                options ^= bit;
+                Node child = new Node(run, cells.clone(), depth + 1);
+                System.arraycopy(rows, 0, child.rows, 0, Board.SIZE);
+                System.arraycopy(cols, 0, child.cols, 0, Board.SIZE);
+                System.arraycopy(boxes, 0, child.boxes, 0, Board.SIZE);
+                child.cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+                child.rows[r] |= bit;
+                child.cols[c] |= bit;
+                child.boxes[b] |= bit;
+                children[n++] = child;
+            }
+            invokeAll(children);
+        }
+
+        private void publish() { // Adds this task's local counts to the shared ones.
+            if (pending > 0) run.total.addAndGet(pending);
+            if (nodes > 0) run.nodes.addAndGet(nodes);
+            if (backtracks > 0) run.backtracks.addAndGet(backtracks);
+            pending = 0;
+            nodes = 0;
+            backtracks = 0;
+        }
+
+        /** @return {@code false} once the search should stop */
+        private boolean dfs() {
+            if (++nodes >= CancellationToken.CHECK_INTERVAL) {
+                publish();
+                if (run.stop()) return false;
+            }
+            int cell = pickCell();
+            if (cell < 0) {
+                if (run.solution.get() == null) run.solution.compareAndSet(null, cells.clone());
+                if (++pending >= FLUSH_EVERY) {
+                    long sum = run.total.addAndGet(pending);
+                    pending = 0;
+                    return sum < run.limit;
+                }
+                return run.total.get() + pending < run.limit;
+            }
+            int r = cell / Board.SIZE, c = cell % Board.SIZE, b = boxOf(cell);
+            int options = ALL & ~(rows[r] | cols[c] | boxes[b]);
+            if (options == 0) backtracks++;
+            boolean go = true;
+            while (options != 0 && go) {
+                int bit = options & -options;
+                options ^= bit;
+                cells[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+                rows[r] |= bit;
+                cols[c] |= bit;
+                boxes[b] |= bit;
+                go = dfs();
+                rows[r] ^= bit;
+                cols[c] ^= bit;
+                boxes[b] ^= bit;
+            }
+            cells[cell] = 0;
+            return go;
+        }
+
+        /** Empty cell with the fewest candidates, or -1 if the grid is full (0 candidates wins at once). */
+        private int pickCell() {
+            int best = -1, bestCount = Integer.MAX_VALUE;
+            for (int i = 0; i < N && bestCount > 0; i++) {
+                if (cells[i] == 0) {
+                    int r = i / Board.SIZE, c = i % Board.SIZE;
+                    int count = Integer.bitCount(ALL & ~(rows[r] | cols[c] | boxes[boxOf(i)]));
+                    if (count < bestCount) {
+                        best = i;
+                        bestCount = count;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Search engine that propagates constraints before every branch.
+ *
+ * <p>Each cell keeps a bitmask of its remaining candidates. Placing a digit removes it
+ * from the cell's peers; any peer left with a single candidate (a naked single) is placed
+ * in turn, and every row, column and box is scanned for digits that fit in exactly one
+ * cell (hidden singles). A cell or unit with no room left for a digit is a contradiction
+ * and ends the branch immediately. Only when nothing more is forced does the search
+ * branch, and it branches on the open cell with the fewest candidates.</p>
+ *
+ * <p>On typical puzzles this settles the whole grid with zero or one guesses. Instances
+ * are single-threaded; create one per search.</p>
+ */
+public final class PropagatingSolver implements SudokuSearch {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int ALL = (1 << Board.SIZE) - 1;
+    private static final int[][] UNITS = new int[3 * Board.SIZE][Board.SIZE]; // rows, then columns, then boxes
+    private static final int[][] PEERS = new int[N][];
+
+    static {
+        for (int i = 0; i < Board.SIZE; i++) {
+            for (int j = 0; j < Board.SIZE; j++) {
+                UNITS[i][j] = i * Board.SIZE + j;
+                UNITS[Board.SIZE + i][j] = j * Board.SIZE + i;
+                int r = (i / Board.BOX) * Board.BOX + j / Board.BOX;
+                int c = (i % Board.BOX) * Board.BOX + j % Board.BOX;
+                UNITS[2 * Board.SIZE + i][j] = r * Board.SIZE + c;
+            }
+        }
+        for (int cell = 0; cell < N; cell++) {
+            int r = cell / Board.SIZE, c = cell % Board.SIZE;
+            int[] peers = new int[3 * (Board.SIZE - 1) - 2 * (Board.BOX - 1)];
+            int n = 0;
+            for (int other = 0; other < N; other++) {
+                int rr = other / Board.SIZE, cc = other % Board.SIZE;
+                boolean sameBox = rr / Board.BOX == r / Board.BOX && cc / Board.BOX == c / Board.BOX;
+                if (other != cell && (rr == r || cc == c || sameBox)) peers[n++] = other;
+            }
+            PEERS[cell] = peers;
+        }
+    }
+
+    private final int[][] candidates = new int[N + 1][]; // per search depth, allocated on first use
+    private final int[][] values = new int[N + 1][];
+    private final int[] queue = new int[N];               // cells reduced to a single candidate
+    private int queueHead = 0, queueTail = 0;
+    private final long searchLimit;
+    private boolean consistent;
+
+    private int[] solution = null;
+    private long searchCount = 0;
+    private long backtrackCount = 0;
+    private CancellationToken cancellation = null;
+    private long nextCheck = 0; // searchCount past which outOfBudget() is asked
+    private boolean cancelled = false;
+    private long propagationCount = 0;
+
+    /**
+     * Prepare a search over a flat puzzle.
+     *
+     * @param start       {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param searchLimit maximum number of search nodes before the search gives up
+     * @throws IllegalArgumentException if {@code start} has the wrong length or an out-of-range value
+     */
+    public PropagatingSolver(int[] start, long searchLimit) {
+        if (start == null) throw new NullPointerException("Passed array is null");
+        if (start.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        this.searchLimit = searchLimit;
+        int[] cand = level(0);
+        Arrays.fill(cand, ALL);
+        boolean ok = true;
+        for (int i = 0; i < N; i++) {
+            int v = start[i];
+            if (v < 0 || v > Board.SIZE) {
+                throw new IllegalArgumentException("Value out of range at index " + i);
+            }
+            if (v != 0 && ok) ok = assign(0, i, v);
+        }
+        this.consistent = ok;
+    }
+
+    /**
+     * Rule out digits at an empty cell of the puzzle, so counts only see solutions that
+     * put some other digit there. Call before {@link #countSolutions(int)}.
+     *
+     * @param cell   row-major index of the cell
+     * @param digits bit {@code d-1} set for each digit {@code d} to rule out
+     */
+    void ban(int cell, int digits) {
+        int[] cand = candidates[0];
+        if (values[0][cell] != 0 && (cand[cell] & digits) != 0) consistent = false;
+        int m = cand[cell] & ~digits;
+        cand[cell] = m;
+        if (m == 0) consistent = false;
+        else if ((m & (m - 1)) == 0) queue[queueTail++] = cell; // naked single
+    }
+
+    @Override
+    public int countSolutions(int limit) {
+        if (limit < 1) limit = 1;
+        searchCount = 0;
+        nextCheck = (cancellation == null) ? searchLimit : 0;
+        cancelled = false;
+        backtrackCount = 0;
+        propagationCount = 0;
+        solution = null;
+        return consistent ? search(0, limit) : 0;
+    }
+
+    @Override
+    public int[] getSolution() {
+        return solution == null ? null : solution.clone();
+    }
+
+    @Override
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    @Override
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    @Override
+    public long getPropagationCount() {
+        return propagationCount;
+    }
+
+    @Override
+    public boolean isSearchLimitHit() {
+        return searchCount > searchLimit || cancelled;
+    }
+
+    @Override
+    public void setCancellation(CancellationToken token) {
+        this.cancellation = token;
+    }
+
+    /* Private Methods */
+
+    private boolean outOfBudget() { // True once out of nodes or cancelled; otherwise schedules the next poll.
+        if (searchCount > searchLimit || cancelled) return true;
+        if (cancellation != null && cancellation.isCancelled()) {
+            cancelled = true;
+            return true;
+        }
+        nextCheck = Math.min(searchLimit, searchCount + CancellationToken.CHECK_INTERVAL);
+        return false;
+    }
+
+    private int search(int depth, int limit) {
+        searchCount++;
+        if (searchCount > nextCheck && outOfBudget()) return 0;
+        if (!propagate(depth)) {
+            backtrackCount++;
+            return 0;
+        }
+
+        int[] cand = candidates[depth], vals = values[depth];
+        int best = -1, bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < N && bestCount > 2; i++) { // minimum remaining values; two is as good as it gets
+            if (vals[i] == 0) {
+                int count = Integer.bitCount(cand[i]);
+                if (count < bestCount) {
+                    best = i;
+                    bestCount = count;
+                }
+            }
+        }
+        if (best < 0) {
+            if (solution == null) solution = vals.clone();
+            return 1;
+        }
+
+        int solutions = 0;
+        int options = cand[best];
+        while (options != 0) {
+            int bit = options & -options;
+            options ^= bit;
+            int[] next = level(depth + 1);
+            System.arraycopy(cand, 0, next, 0, N);
+            System.arraycopy(vals, 0, values[depth + 1], 0, N);
+            queueHead = queueTail = 0;
+            if (assign(depth + 1, best, Integer.numberOfTrailingZeros(bit) + 1)) {
+                solutions += search(depth + 1, limit - solutions);
+                if (solutions >= limit) break; // short-circuit
+            } else {
+                backtrackCount++;
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Place digit {@code d} at {@code cell} on the given depth and strike it from all peers.
+     * Peers reduced to one candidate are queued for {@link #propagate(int)}.
+     *
+     * @return {@code false} if the placement leads to an immediate contradiction
+     */
+    private boolean assign(int depth, int cell, int d) {
+        int[] cand = candidates[depth], vals = values[depth];
+        int bit = 1 << (d - 1);
+        if ((cand[cell] & bit) == 0) return false;
+        if (vals[cell] != 0) return vals[cell] == d;
+        vals[cell] = d;
+        cand[cell] = bit;
+        for (int p : PEERS[cell]) {
+            int m = cand[p];
+            if ((m & bit) != 0) {
+                if (vals[p] != 0) return false; // peer already holds d
+                m ^= bit;
+                cand[p] = m;
+                if (m == 0) return false;
+                if ((m & (m - 1)) == 0) queue[queueTail++] = p; // naked single
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Apply naked and hidden singles on the given depth until nothing more is forced.
+     *
+     * @return {@code false} if a contradiction was found
+     */
+    private boolean propagate(int depth) {
+        int[] cand = candidates[depth], vals = values[depth];
+        boolean changed = true;
+        while (changed) {
+            if (!drainQueue(depth)) return false;
+            changed = false;
+            for (int[] unit : UNITS) {
+                int once = 0, more = 0, placed = 0;
+                for (int cell : unit) {
+                    int m = cand[cell];
+                    if (vals[cell] != 0) {
+                        placed |= m;
+                    } else {
+                        more |= once & m;
+                        once |= m;
+                    }
+                }
+                if ((once | placed) != ALL) return false; // some digit has nowhere to go
+                int hidden = once & ~more & ~placed;
+                while (hidden != 0) {
+                    int bit = hidden & -hidden;
+                    hidden ^= bit;
+                    for (int cell : unit) {
+                        if (vals[cell] == 0 && (cand[cell] & bit) != 0) {
+                            propagationCount++;
+                            if (!assign(depth, cell, Integer.numberOfTrailingZeros(bit) + 1)) return false;
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+                if (!drainQueue(depth)) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean drainQueue(int depth) { // Places every queued naked single.
+        int[] cand = candidates[depth], vals = values[depth];
+        while (queueHead < queueTail) {
+            int cell = queue[queueHead++];
+            if (vals[cell] != 0) continue;
+            propagationCount++;
+            if (!assign(depth, cell, Integer.numberOfTrailingZeros(cand[cell]) + 1)) return false;
+        }
+        return true;
+    }
+
+    private int[] level(int depth) { // Lazily allocates the state arrays for a search depth.
+        if (candidates[depth] == null) {
+            candidates[depth] = new int[N];
+            values[depth] = new int[N];
+        }
+        return candidates[depth];
+    }
+}
@@ -0,0 +1,318 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Persistent file of unique puzzles with their solutions, indexed by difficulty and clue count.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE}-byte header (the magic {@code JSUDBANK},
+ * a format version and the record size) followed by fixed-size records of
+ * {@value #RECORD_SIZE} bytes:</p>
+ * <ul>
+ *   <li>41 bytes &mdash; the solution, two cells per byte (4 bits each, row-major, high nibble first)</li>
+ *   <li>11 bytes &mdash; the givens as an 81-bit mask, cell {@code i} in bit {@code i % 8} of byte {@code i / 8}</li>
+ *   <li>1 byte &mdash; the number of givens</li>
+ *   <li>1 byte &mdash; the difficulty: the clue target the puzzle was generated for</li>
+ * </ul>
+ * <p>The puzzle itself is the solution restricted to the givens, so nothing else is stored.
+ * On open the records are scanned once to build an in-memory index of record numbers per
+ * difficulty and per clue count; after that {@link #draw(int)} picks a random puzzle with
+ * one index lookup and one positional read. {@link #append(Board, int[], int)} adds to the
+ * end of the file and to the index. A trailing partial record (from an interrupted write)
+ * is ignored and overwritten by the next append.</p>
+ *
+ * <p>All methods are thread-safe. Several processes may share one bank file (the GUI and
+ * the CLI both open {@link #defaultPath()}): each append holds an exclusive
+ * {@link FileChannel#lock() file lock}, and under it first indexes any records other
+ * processes have appended since, so records never interleave or overlap. Records appended
+ * elsewhere become visible to {@link #draw(int)} at this bank's next append.</p>
+ */
+public final class PuzzleBank implements Closeable {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final long MAGIC = 0x4A53554442414E4BL; // "JSUDBANK"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SOLUTION_BYTES = (N + 1) / 2;
+    private static final int GIVEN_BYTES = (N + 7) / 8;
+    private static final int RECORD_SIZE = SOLUTION_BYTES + GIVEN_BYTES + 2;
+    private static final int SCAN_RECORDS = 4096; // records read per buffer while indexing
+    private static final Object APPENDING = new Object(); // file locks are per JVM; banks in one JVM take turns
+
+    private final FileChannel channel;
+    private final Map<Integer, IntList> byDifficulty = new HashMap<>();
+    private final Map<Integer, IntList> byClues = new HashMap<>();
+    private int size;
+
+    /** Growable list of record numbers. */
+    private static final class IntList {
+        int[] items = new int[16];
+        int size;
+
+        void add(int v) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = v;
+        }
+    }
+
+    /**
+     * Open a bank file, creating it (and its parent directories) if it does not exist.
+     *
+     * @param file bank file
+     * @throws IOException if the file cannot be opened or is not a puzzle bank
+     */
+    public PuzzleBank(Path file) throws IOException {
+        if (file == null) throw new NullPointerException("Path is null");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) writeHeader();
+            else readHeader(file);
+            catchUp();
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Default bank location: the {@code sudoku.bank} system property, or
+     * {@code ~/.jsudoku/puzzles.bank}.
+     *
+     * @return path of the default bank file
+     */
+    public static Path defaultPath() {
+        String p = System.getProperty("sudoku.bank");
+        return (p != null) ? Path.of(p) : Path.of(System.getProperty("user.home"), ".jsudoku", "puzzles.bank");
+    }
+
+    /**
+     * Append a puzzle and its solution.
+     *
+     * @param puzzle     puzzle whose givens are stored (only {@link Cell#isGiven()} cells count)
+     * @param solution   its solution, {@code SIZE*SIZE} values in row-major order
+     * @param difficulty clue target the puzzle was generated for, {@code 0..255}
+     * @return record number of the new puzzle
+     * @throws IOException if the record cannot be written
+     * @throws IllegalArgumentException if the solution is malformed or disagrees with a given
+     */
+    public synchronized int append(Board puzzle, int[] solution, int difficulty) throws IOException {
+        if (puzzle == null || solution == null) throw new NullPointerException("Puzzle or solution is null");
+        if (solution.length != N) throw new IllegalArgumentException("Solution must have " + N + " cells");
+        if (difficulty < 0 || difficulty > 255) throw new IllegalArgumentException("Difficulty must be 0..255");
+        ByteBuffer rec = ByteBuffer.allocate(RECORD_SIZE);
+        int clues = 0;
+        for (int i = 0; i < N; i++) {
+            int v = solution[i];
+            if (v < 1 || v > Board.SIZE) throw new IllegalArgumentException("Solution value out of range at index " + i);
+            int r = i / Board.SIZE, c = i % Board.SIZE;
+            if (puzzle.cell(r, c).isGiven()) {
+                if (puzzle.cell(r, c).getValue() != v) throw new IllegalArgumentException("Given at index " + i + " disagrees with the solution");
+                rec.put(SOLUTION_BYTES + i / 8, (byte) (rec.get(SOLUTION_BYTES + i / 8) | 1 << (i % 8)));
+                clues++;
+            }
+            int packed = rec.get(i / 2) | (i % 2 == 0 ? v << 4 : v);
+            rec.put(i / 2, (byte) packed);
+        }
+        rec.put(RECORD_SIZE - 2, (byte) clues);
+        rec.put(RECORD_SIZE - 1, (byte) difficulty);
+        synchronized (APPENDING) {
+            try (FileLock lock = channel.lock()) {
+                catchUp(); // records other processes appended since
+                long pos = HEADER_SIZE + (long) size * RECORD_SIZE;
+                while (rec.hasRemaining()) pos += channel.write(rec, pos);
+                index(size, clues, difficulty);
+                return size++;
+            }
+        }
+    }
+
+    /**
+     * Read a puzzle by record number.
+     *
+     * @param index record number {@code 0..size()-1}
+     * @return a new board holding the puzzle's givens
+     * @throws IOException if the record cannot be read
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public Board get(int index) throws IOException {
+        return toBoard(read(index));
+    }
+
+    /**
+     * Read the solution of a puzzle by record number.
+     *
+     * @param index record number {@code 0..size()-1}
+     * @return {@code SIZE*SIZE} values in row-major order
+     * @throws IOException if the record cannot be read
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     */
+    public int[] solution(int index) throws IOException {
+        ByteBuffer rec = read(index);
+        int[] cells = new int[N];
+        for (int i = 0; i < N; i++) cells[i] = nibble(rec, i);
+        return cells;
+    }
+
+    /**
+     * Pick a random puzzle generated for a difficulty.
+     *
+     * @param difficulty clue target
+     * @return a new board, or {@code null} if the bank has no puzzle of that difficulty
+     * @throws IOException if the record cannot be read
+     */
+    public Board draw(int difficulty) throws IOException {
+        int index;
+        synchronized (this) {
+            index = pick(byDifficulty.get(difficulty));
+        }
+        return (index < 0) ? null : get(index);
+    }
+
+    /**
+     * Pick a random puzzle with exactly this many givens.
+     *
+     * @param clues number of givens
+     * @return a new board, or {@code null} if the bank has no puzzle with that many givens
+     * @throws IOException if the record cannot be read
+     */
+    public Board drawByClues(int clues) throws IOException {
+        int index;
+        synchronized (this) {
+            index = pick(byClues.get(clues));
+        }
+        return (index < 0) ? null : get(index);
+    }
+
+    /**
+     * Close the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /* Getter methods */
+
+    /**
+     * Gets the number of puzzles in the bank.
+     *
+     * @return record count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of puzzles generated for a difficulty.
+     *
+     * @param difficulty clue target
+     * @return matching record count
+     */
+    public synchronized int count(int difficulty) {
+        IntList list = byDifficulty.get(difficulty);
+        return list == null ? 0 : list.size;
+    }
+
+    /**
+     * Gets the number of puzzles with exactly this many givens.
+     *
+     * @param clues number of givens
+     * @return matching record count
+     */
+    public synchronized int countByClues(int clues) {
+        IntList list = byClues.get(clues);
+        return list == null ? 0 : list.size;
+    }
+
+    /* Private Methods */
+
+    private void writeHeader() throws IOException { // Header for a new, empty bank.
+        ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE);
+        h.putLong(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).flip();
+        long pos = 0;
+        while (h.hasRemaining()) pos += channel.write(h, pos);
+    }
+
+    private void readHeader(Path file) throws IOException { // Rejects files that are not version-1 banks.
+        ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE);
+        while (h.hasRemaining() && channel.read(h, h.position()) >= 0) { }
+        h.flip();
+        if (h.remaining() < HEADER_SIZE || h.getLong() != MAGIC) throw new IOException(file + " is not a puzzle bank");
+        int version = h.getInt(), recordSize = h.getInt();
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException(file + " has unsupported bank version " + version);
+        }
+    }
+
+    private void catchUp() throws IOException { // Indexes the complete records past the ones already indexed.
+        long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        if (records > Integer.MAX_VALUE) throw new IOException("Bank has too many records");
+        if (records <= size) return;
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(SCAN_RECORDS, records - size) * RECORD_SIZE);
+        int n = size;
+        while (n < records) {
+            int batch = (int) Math.min(SCAN_RECORDS, records - n);
+            buf.clear().limit(batch * RECORD_SIZE);
+            long pos = HEADER_SIZE + (long) n * RECORD_SIZE;
+            while (buf.hasRemaining()) {
+                int read = channel.read(buf, pos + buf.position());
+                if (read < 0) throw new IOException("Bank truncated while reading");
+            }
+            for (int k = 0; k < batch; k++) {
+                int base = k * RECORD_SIZE;
+                index(n + k, buf.get(base + RECORD_SIZE - 2) & 0xFF, buf.get(base + RECORD_SIZE - 1) & 0xFF);
+            }
+            n += batch;
+        }
+        size = n;
+    }
+
+    private void index(int record, int clues, int difficulty) { // Adds a record to both indexes.
+        byDifficulty.computeIfAbsent(difficulty, k -> new IntList()).add(record);
+        byClues.computeIfAbsent(clues, k -> new IntList()).add(record);
+    }
+
+    private static int pick(IntList list) { // Random record number from a list, or -1 if empty.
+        return (list == null || list.size == 0) ? -1 : list.items[ThreadLocalRandom.current().nextInt(list.size)];
+    }
+
+    private ByteBuffer read(int index) throws IOException { // One positional read of a whole record.
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("No puzzle " + index);
+        ByteBuffer rec = ByteBuffer.allocate(RECORD_SIZE);
+        long pos = HEADER_SIZE + (long) index * RECORD_SIZE;
+        while (rec.hasRemaining()) {
+            if (channel.read(rec, pos + rec.position()) < 0) throw new IOException("Bank truncated at puzzle " + index);
+        }
+        return rec;
+    }
+
+    private static int nibble(ByteBuffer rec, int i) { // Solution digit of cell i.
+        int b = rec.get(i / 2) & 0xFF;
+        return (i % 2 == 0) ? b >>> 4 : b & 0xF;
+    }
+
+    private static Board toBoard(ByteBuffer rec) { // Puzzle = solution restricted to the givens.
+        char[] values = new char[N];
+        char[] mask = new char[N];
+        for (int i = 0; i < N; i++) {
+            boolean given = (rec.get(SOLUTION_BYTES + i / 8) >>> (i % 8) & 1) != 0;
+            values[i] = given ? (char) ('0' + nibble(rec, i)) : '0';
+            mask[i] = given ? '1' : '0';
+        }
+        return Board.fromString(new String(values), new String(mask));
+    }
+}
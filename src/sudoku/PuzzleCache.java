@@ -0,0 +1,254 @@
+package sudoku;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a few ready-made unique puzzles per difficulty so a new game can start instantly.
+ *
+ * <p>Puzzles are produced by {@link Generator#generateUnique(int, int)} on background
+ * daemon threads. Each clue count has its own queue of up to {@code depth} puzzles, and
+ * only puzzles with exactly that many givens are queued: when no attempt reaches the
+ * target, the result is dropped and the next request queues another try.
+ * whenever a puzzle is handed out (or {@link #prefill(int...)} is called) the queue is
+ * topped back up in the background. A request that finds a puzzle waiting is a
+ * <em>hit</em>; one that finds the queue empty is a <em>miss</em>.</p>
+ *
+ * <p>With a {@link PuzzleBank} attached via {@link #archiveTo(PuzzleBank)}, every
+ * generated puzzle is also appended to the bank (with its solution, filed under its actual
+ * given count, so one that missed its target is still kept), and a request that finds its
+ * queue empty draws a stored puzzle with exactly the requested given count instead. That is a <em>bank hit</em>, counted apart from queue hits.</p>
+ *
+ * <p>Every queued puzzle is handed out once. Bank draws are random with replacement, so a
+ * stored puzzle may be handed out again, in this session or a later one. Every request
+ * gets its own {@link Board}, so callers still own the boards they receive. A cache may
+ * be shared between threads.</p>
+ */
+public final class PuzzleCache implements AutoCloseable {
+    private final int depth;
+    private final int maxAttempts;
+    private final ExecutorService workers;
+    private final Map<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong bankHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile PuzzleBank bank;
+
+    /** Ready puzzles for one clue count plus the refills already queued for it. */
+    private static final class Slot {
+        final BlockingQueue<Board> ready;
+        final AtomicInteger pending = new AtomicInteger();
+
+        Slot(int depth) {
+            ready = new ArrayBlockingQueue<>(depth);
+        }
+    }
+
+    /**
+     * Create a cache refilled by one background thread per spare core (at least one).
+     *
+     * @param depth       puzzles kept ready per difficulty
+     * @param maxAttempts generation attempts per puzzle (see {@link Generator#generateUnique(int, int)})
+     * @throws IllegalArgumentException if any argument is less than 1
+     */
+    public PuzzleCache(int depth, int maxAttempts) {
+        this(depth, maxAttempts, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Create a cache.
+     *
+     * @param depth       puzzles kept ready per difficulty
+     * @param maxAttempts generation attempts per puzzle (see {@link Generator#generateUnique(int, int)})
+     * @param threads     background generator threads
+     * @throws IllegalArgumentException if any argument is less than 1
+     */
+    public PuzzleCache(int depth, int maxAttempts, int threads) {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be at least 1");
+        if (maxAttempts < 1) throw new IllegalArgumentException("Attempts must be at least 1");
+        if (threads < 1) throw new IllegalArgumentException("Threads must be at least 1");
+        this.depth = depth;
+        this.maxAttempts = maxAttempts;
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "puzzle-cache-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY); // stay out of the UI's way
+            return t;
+        });
+    }
+
+    /**
+     * Archive generated puzzles to a bank and fall back to it when a queue is empty.
+     *
+     * @param bank bank to use, or {@code null} to stop using one
+     */
+    public void archiveTo(PuzzleBank bank) {
+        this.bank = bank;
+    }
+
+    /**
+     * Start filling the queues for the given clue counts in the background.
+     *
+     * @param clueCounts difficulties to prepare
+     */
+    public void prefill(int... clueCounts) {
+        for (int clues : clueCounts) refill(clues, slot(clues));
+    }
+
+    /**
+     * Take a ready puzzle without waiting.
+     *
+     * @param clues number of givens wanted
+     * @return a unique puzzle, or {@code null} if none is ready (a miss)
+     */
+    public Board poll(int clues) {
+        Slot slot = slot(clues);
+        Board board = slot.ready.poll();
+        if (board != null) {
+            hits.incrementAndGet();
+        } else if ((board = fromBank(clues)) != null) {
+            bankHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        refill(clues, slot);
+        return board;
+    }
+
+    /**
+     * Take a puzzle, generating one if none is ready.
+     * <p>On a miss the caller waits for {@link Generator#generateUniqueParallel(int, int)};
+     * do not call on the event thread.</p>
+     *
+     * @param clues number of givens wanted
+     * @return a unique puzzle; one generated on a miss may have more givens than {@code clues}
+     */
+    public Board take(int clues) {
+        Board board = poll(clues);
+        return board != null ? board : Generator.generateUniqueParallel(clues, maxAttempts);
+    }
+
+    /**
+     * Stop the background threads. Puzzles already queued can still be taken.
+     */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    /* Getter methods */
+
+    /**
+     * Gets the number of puzzles kept ready per difficulty.
+     *
+     * @return the cache depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the number of puzzles ready right now for a clue count.
+     *
+     * @param clues number of givens
+     * @return puzzles waiting in the queue
+     */
+    public int available(int clues) {
+        Slot slot = slots.get(clues);
+        return slot == null ? 0 : slot.ready.size();
+    }
+
+    /**
+     * Gets the number of requests served from a queue, each with a puzzle not handed out before.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of requests served from the bank because their queue was empty.
+     * These puzzles may repeat earlier ones.
+     *
+     * @return bank hit count
+     */
+    public long getBankHitCount() {
+        return bankHits.get();
+    }
+
+    /**
+     * Gets the number of requests that found no puzzle in their queue or the bank.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /* Private Methods */
+
+    private Slot slot(int clues) { // Queue for a clue count, created on first use.
+        return slots.computeIfAbsent(clues, k -> new Slot(depth));
+    }
+
+    private Board fromBank(int clues) { // Stored puzzle for a clue target, or null.
+        PuzzleBank b = bank;
+        if (b == null) return null;
+        try {
+            return b.drawByClues(clues); // also skips puzzles filed under a target they missed
+        } catch (IOException ex) {
+            return null; // the bank is only a fallback
+        }
+    }
+
+    private void archive(Board board, int clues) { // Appends a fresh puzzle and its solution to the bank, filed under its givens.
+        PuzzleBank b = bank;
+        if (b == null) return;
+        int[] solution = new Solver().analyze(board).getSolution();
+        if (solution == null) return;
+        try {
+            b.append(board, solution, clues);
+        } catch (IOException ex) {
+            // Archiving is best effort; the puzzle is still served from the queue.
+        }
+    }
+
+    private static int givens(Board board) { // Number of non-empty cells of a fresh puzzle.
+        int n = 0;
+        for (int v : board.toArray()) if (v != 0) n++;
+        return n;
+    }
+
+    private void refill(int clues, Slot slot) { // Queues enough generations to bring the slot back to depth.
+        while (true) {
+            int pending = slot.pending.get();
+            if (slot.ready.size() + pending >= depth) return;
+            if (!slot.pending.compareAndSet(pending, pending + 1)) continue;
+            try {
+                workers.execute(() -> {
+                    try {
+                        Board board = Generator.generateUnique(clues, maxAttempts);
+                        int givens = givens(board);
+                        archive(board, givens);
+                        if (givens == clues) slot.ready.offer(board); // above target: the next request tries again
+                    } finally {
+                        slot.pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException ex) { // closed
+                slot.pending.decrementAndGet();
+                return;
+            }
+        }
+    }
+}
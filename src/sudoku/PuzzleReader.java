@@ -0,0 +1,154 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bulk reader for puzzle files that memory-maps the file instead of going through strings.
+ *
+ * <p>The file holds one puzzle per line in the format accepted by {@link Board#fromString(String)}:
+ * {@code SIZE*SIZE} characters, digits {@code 1..SIZE} for givens and {@code '0'} or
+ * {@code '.'} for empty cells; {@code \n} or {@code \r\n} line endings. Each call to
+ * {@link #next(int[], int)} parses the next record straight from the mapped bytes into a
+ * caller-owned flat array, so reading allocates nothing per puzzle. Lines that are not
+ * valid puzzles are counted and skipped.</p>
+ *
+ * <p>The file is mapped in windows of {@value #WINDOW} bytes, so files larger than 2 GB are
+ * fine. A reader is single-threaded.</p>
+ */
+public final class PuzzleReader implements Closeable {
+    /** Size of each mapped window, in bytes. */
+    public static final int WINDOW = 1 << 26;
+    private static final int N = Board.SIZE * Board.SIZE;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer buf;
+    private long base = 0;     // file offset of buf's first byte
+    private int pos = 0;       // read position within buf
+    private long lines = 0;
+    private long skipped = 0;
+
+    /**
+     * Open a puzzle file for reading.
+     *
+     * @param file path to the puzzle file
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public PuzzleReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+        map(0);
+    }
+
+    /**
+     * Read the next valid puzzle into {@code out[offset .. offset + SIZE*SIZE)}, row-major,
+     * with {@code 0} for empty cells. Invalid lines are skipped.
+     *
+     * @param out    destination buffer
+     * @param offset index of the first cell in {@code out}
+     * @return {@code true} if a puzzle was read; {@code false} at end of file
+     * @throws IOException if a window cannot be mapped
+     */
+    public boolean next(int[] out, int offset) throws IOException {
+        if (offset < 0 || out.length - offset < N) throw new IndexOutOfBoundsException("Buffer too small for a puzzle");
+        while (base + pos < size) {
+            int limit = buf.limit();
+            int end = pos;
+            while (end < limit && buf.get(end) != '\n') end++;
+            if (end == limit && base + limit < size) { // line runs past this window
+                if (pos == 0) { // longer than a whole window: certainly not a puzzle
+                    skipLongLine();
+                } else {
+                    map(base + pos);
+                }
+                continue;
+            }
+            lines++;
+            boolean ok = parse(pos, end, out, offset);
+            pos = end + 1;
+            if (ok) return true;
+            skipped++;
+        }
+        return false;
+    }
+
+    /**
+     * Read the next valid puzzle into {@code out}, which must hold at least {@code SIZE*SIZE} cells.
+     *
+     * @param out destination buffer
+     * @return {@code true} if a puzzle was read; {@code false} at end of file
+     * @throws IOException if a window cannot be mapped
+     */
+    public boolean next(int[] out) throws IOException {
+        return next(out, 0);
+    }
+
+    /**
+     * Number of lines consumed so far, valid or not.
+     *
+     * @return lines read
+     */
+    public long getLineCount() { return lines; }
+
+    /**
+     * Number of lines skipped because they were not valid puzzles.
+     *
+     * @return lines skipped
+     */
+    public long getSkippedCount() { return skipped; }
+
+    @Override
+    public void close() throws IOException {
+        buf = null;
+        channel.close();
+    }
+
+    /* Private Methods */
+
+    private boolean parse(int from, int to, int[] out, int offset) { // Parses buf[from, to) as one puzzle record.
+        while (to > from && isBlank(buf.get(to - 1))) to--;
+        while (from < to && isBlank(buf.get(from))) from++;
+        if (to - from != N) return false;
+        for (int i = 0; i < N; i++) {
+            int ch = buf.get(from + i);
+            if (ch == '.') {
+                out[offset + i] = 0;
+            } else if (ch >= '0' && ch <= '0' + Board.SIZE) {
+                out[offset + i] = ch - '0';
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipLongLine() throws IOException { // Discards a line that spans more than one window.
+        lines++;
+        skipped++;
+        while (true) {
+            map(base + buf.limit());
+            int limit = buf.limit();
+            int end = 0;
+            while (end < limit && buf.get(end) != '\n') end++;
+            if (end < limit || base + limit >= size) {
+                pos = Math.min(end + 1, limit);
+                return;
+            }
+        }
+    }
+
+    private void map(long offset) throws IOException {
+        base = offset;
+        pos = 0;
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+    }
+
+    private static boolean isBlank(int ch) {
+        return ch == '\r' || ch == ' ' || ch == '\t';
+    }
+}
@@ -0,0 +1,230 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped index from a puzzle's fingerprint to its unique solution.
+ *
+ * <p>The file starts with a {@value #HEADER_SIZE}-byte header (the magic {@code JSUDSIDX},
+ * a format version and the record size) followed by fixed-size records of
+ * {@value #RECORD_SIZE} bytes, sorted by fingerprint as a signed {@code long}:</p>
+ * <ul>
+ *   <li>8 bytes &mdash; {@link #fingerprint(int[])} of the puzzle, big-endian</li>
+ *   <li>41 bytes &mdash; the solution, two cells per byte (4 bits each, row-major, high nibble first)</li>
+ * </ul>
+ * <p>The records are never loaded onto the heap: the file is mapped in read-only segments
+ * of at most {@value #SEGMENT_RECORDS} records and searched in place. Fingerprints are
+ * evenly spread hashes, so {@link #lookup(int[])} first interpolates between the keys at
+ * the ends of its range, which lands within a few records of the target, and falls back
+ * to bisection if that stops making progress. A lookup touches a handful of pages even
+ * with hundreds of millions of records. A solution is only returned if it agrees with
+ * every given of the puzzle asked about, so a fingerprint collision is a miss rather
+ * than a wrong answer.</p>
+ *
+ * <p>Indexes are written by {@link SolutionIndexBuilder}. {@link Solver#analyze(int[])}
+ * consults {@link #shared()} on a {@link SolveCache} miss, before searching.
+ * A {@code SolutionIndex} is immutable once open and may be shared between threads.</p>
+ */
+public final class SolutionIndex implements Closeable {
+    static final long MAGIC = 0x4A53554453494458L; // "JSUDSIDX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SOLUTION_BYTES = (Board.SIZE * Board.SIZE + 1) / 2;
+    static final int RECORD_SIZE = Long.BYTES + SOLUTION_BYTES;
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int SEGMENT_RECORDS = (1 << 30) / RECORD_SIZE;
+    private static final int INTERPOLATION_STEPS = 6; // then bisect
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /** The shared index, opened on first use. */
+    private static final class Shared {
+        static final SolutionIndex INDEX = openDefault();
+    }
+
+    /**
+     * Open and map an index file.
+     *
+     * @param file index file written by {@link SolutionIndexBuilder}
+     * @throws IOException if the file cannot be mapped or is not a solution index
+     */
+    public SolutionIndex(Path file) throws IOException {
+        if (file == null) throw new NullPointerException("Path is null");
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE);
+            while (h.hasRemaining() && channel.read(h, h.position()) >= 0) { }
+            h.flip();
+            if (h.remaining() < HEADER_SIZE || h.getLong() != MAGIC) throw new IOException(file + " is not a solution index");
+            int version = h.getInt(), recordSize = h.getInt();
+            if (version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException(file + " has unsupported index version " + version);
+            }
+            long bytes = channel.size() - HEADER_SIZE;
+            if (bytes % RECORD_SIZE != 0) throw new IOException(file + " is truncated");
+            size = bytes / RECORD_SIZE;
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS)];
+            for (int s = 0; s < segments.length; s++) {
+                long first = (long) s * SEGMENT_RECORDS;
+                long records = Math.min(SEGMENT_RECORDS, size - first);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Default index location: the {@code sudoku.index} system property, or
+     * {@code ~/.jsudoku/solutions.idx}.
+     *
+     * @return path of the default index file
+     */
+    public static Path defaultPath() {
+        String p = System.getProperty("sudoku.index");
+        return (p != null) ? Path.of(p) : Path.of(System.getProperty("user.home"), ".jsudoku", "solutions.idx");
+    }
+
+    /**
+     * The index at {@link #defaultPath()}, opened on first use.
+     *
+     * @return the shared index, or {@code null} if there is no index file or it cannot be opened
+     */
+    public static SolutionIndex shared() {
+        return Shared.INDEX;
+    }
+
+    /**
+     * Fingerprint of a puzzle as stored in the index: a 64-bit hash of its cells packed
+     * four bits each. Part of the file format; do not change.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @return the fingerprint
+     * @throws IllegalArgumentException if {@code cells} has the wrong length
+     */
+    public static long fingerprint(int[] cells) {
+        if (cells == null) throw new NullPointerException("Passed array is null");
+        if (cells.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        long h = 0x6A09E667F3BCC908L;
+        long word = 0;
+        for (int i = 0; i < N; i++) {
+            word = (word << 4) | (cells[i] & 0xF);
+            if ((i & 15) == 15 || i == N - 1) {
+                h = (h ^ word) * 0x9E3779B97F4A7C15L;
+                h ^= h >>> 31;
+                word = 0;
+            }
+        }
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Look a puzzle up.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @return a new array holding the puzzle's unique solution, or {@code null} if it is not indexed
+     * @throws IllegalArgumentException if {@code cells} has the wrong length
+     */
+    public int[] lookup(int[] cells) {
+        long key = fingerprint(cells);
+        long i = find(key);
+        if (i < 0) return null;
+        while (i > 0 && keyAt(i - 1) == key) i--; // first of any records sharing the key
+        int[] solution = new int[N];
+        for (; i < size && keyAt(i) == key; i++) {
+            if (readSolution(i, cells, solution)) return solution;
+        }
+        return null;
+    }
+
+    /**
+     * Unmap the index and close the file. The mapped pages are released once the index is
+     * no longer referenced.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /* Getter methods */
+
+    /**
+     * Gets the number of puzzles in the index.
+     *
+     * @return record count
+     */
+    public long size() {
+        return size;
+    }
+
+    /* Private Methods */
+
+    private static SolutionIndex openDefault() { // Index at the default path, or null.
+        Path p = defaultPath();
+        if (!Files.isRegularFile(p)) return null;
+        try {
+            return new SolutionIndex(p);
+        } catch (IOException ex) {
+            System.err.println("Could not open solution index: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private long find(long key) { // Record number of some record with this key, or -1.
+        long lo = 0, hi = size - 1;
+        if (size == 0) return -1;
+        long kl = keyAt(lo), kh = keyAt(hi);
+        int steps = 0;
+        while (lo <= hi) {
+            if (key < kl || key > kh) return -1;
+            long mid;
+            if (steps++ < INTERPOLATION_STEPS && kh != kl) {
+                double f = ((double) key - (double) kl) / ((double) kh - (double) kl);
+                mid = lo + (long) (f * (hi - lo));
+                mid = Math.max(lo, Math.min(hi, mid));
+            } else {
+                mid = (lo + hi) >>> 1;
+            }
+            long km = keyAt(mid);
+            if (km < key) {
+                lo = mid + 1;
+                if (lo <= hi) kl = keyAt(lo);
+            } else if (km > key) {
+                hi = mid - 1;
+                if (lo <= hi) kh = keyAt(hi);
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long keyAt(long record) { // Fingerprint stored in a record.
+        return segments[(int) (record / SEGMENT_RECORDS)].getLong((int) (record % SEGMENT_RECORDS) * RECORD_SIZE);
+    }
+
+    private boolean readSolution(long record, int[] givens, int[] out) { // Unpacks a solution if it fits the givens.
+        MappedByteBuffer seg = segments[(int) (record / SEGMENT_RECORDS)];
+        int base = (int) (record % SEGMENT_RECORDS) * RECORD_SIZE + Long.BYTES;
+        for (int i = 0; i < N; i++) {
+            int b = seg.get(base + i / 2) & 0xFF;
+            int v = (i % 2 == 0) ? b >>> 4 : b & 0xF;
+            if (givens[i] != 0 && givens[i] != v) return false;
+            out[i] = v;
+        }
+        return true;
+    }
+}
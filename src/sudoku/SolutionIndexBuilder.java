@@ -0,0 +1,241 @@
+package sudoku;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Headless tool that builds a {@link SolutionIndex} from a puzzle file.
+ *
+ * <p>The input is read exactly as {@link BatchSolver} reads it, and chunks of puzzles are
+ * analysed in parallel on all cores, bypassing the solve cache and any loaded index. Only
+ * puzzles with a unique solution are indexed.
+ * Records are gathered in runs of up to {@value #RUN_RECORDS}, each sorted by fingerprint
+ * and written to a temporary file next to the output; the runs are then merged into the
+ * index, dropping repeated puzzles. A run's buffers grow with it, so a small input only
+ * takes the memory its own records need and no input takes more than about 100 MB, and
+ * the index is only moved into place once it is complete.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>{@code java sudoku.SolutionIndexBuilder <input> <index> [threads]}</pre>
+ */
+public final class SolutionIndexBuilder {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int RUN_RECORDS = 1 << 21; // records sorted in memory at once (~100 MB)
+    private static final int IO_BUFFER = 1 << 16;
+
+    private SolutionIndexBuilder() {}
+
+    /**
+     * Launch the builder.
+     *
+     * @param args input file, index file to write, optional thread count
+     * @throws IOException if the input cannot be read or the index cannot be written
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: java sudoku.SolutionIndexBuilder <input> <index> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        long written;
+        long skipped;
+        try (PuzzleReader in = new PuzzleReader(Path.of(args[0]))) {
+            written = build(in, Path.of(args[1]), threads);
+            skipped = in.getSkippedCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Indexed %d unique puzzles in %.2f s, skipped %d invalid lines%n", written, seconds, skipped);
+    }
+
+    /**
+     * Analyse every puzzle from {@code in} and write the unique ones to an index file.
+     *
+     * @param in      puzzle source
+     * @param index   index file to create or replace
+     * @param threads number of worker threads
+     * @return number of records in the index
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting for workers
+     */
+    public static long build(PuzzleReader in, Path index, int threads) throws IOException, InterruptedException {
+        Path dir = index.toAbsolutePath().getParent();
+        List<Path> runs = new ArrayList<>();
+        Path tmp = null;
+        try {
+            sortRuns(in, dir, threads, runs);
+            tmp = index.resolveSibling(index.getFileName() + ".tmp");
+            long written = merge(runs, tmp);
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            return written;
+        } finally {
+            for (Path run : runs) Files.deleteIfExists(run);
+            if (tmp != null) Files.deleteIfExists(tmp);
+        }
+    }
+
+    /* Private Methods */
+
+    private static void sortRuns(PuzzleReader in, Path dir, int threads, List<Path> runs)
+            throws IOException, InterruptedException { // Solves the input into sorted run files.
+        Solver solver = new Solver(Solver.getDefaultEngine(), null); // no cache, and not the index being rebuilt
+        Run run = new Run(ChunkPipeline.CHUNK);
+        ChunkPipeline.run(in, threads, (chunk, size) -> solveChunk(solver, chunk, size),
+            solved -> collect(solved, run, dir, runs));
+        if (run.size > 0 || runs.isEmpty()) runs.add(run.write(dir));
+    }
+
+    private static void collect(Run solved, Run run, Path dir, List<Path> runs) throws IOException { // Adds a chunk's records, spilling full runs.
+        for (int k = 0; k < solved.size; k++) {
+            if (run.size == RUN_RECORDS) {
+                runs.add(run.write(dir));
+                run.size = 0;
+            }
+            run.add(solved.keys[k], solved.solutions, k * SolutionIndex.SOLUTION_BYTES);
+        }
+    }
+
+    private static Run solveChunk(Solver solver, int[] chunk, int size) { // Records for the unique puzzles of a chunk.
+        Run out = new Run(size);
+        int[] cells = new int[N];
+        for (int k = 0; k < size; k++) {
+            System.arraycopy(chunk, k * N, cells, 0, N);
+            SolveResult result = solver.analyze(cells);
+            if (!result.isUnique()) continue;
+            int[] solution = result.getSolution();
+            byte[] packed = new byte[SolutionIndex.SOLUTION_BYTES];
+            for (int i = 0; i < N; i++) packed[i / 2] |= (byte) (i % 2 == 0 ? solution[i] << 4 : solution[i]);
+            out.add(SolutionIndex.fingerprint(cells), packed, 0);
+        }
+        return out;
+    }
+
+    private static long merge(List<Path> runs, Path target) throws IOException { // K-way merge of sorted runs, without repeats.
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> Long.compare(a.key, b.key));
+        List<RunReader> open = new ArrayList<>();
+        long written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), IO_BUFFER))) {
+            for (Path run : runs) {
+                RunReader r = new RunReader(run);
+                open.add(r);
+                if (r.advance()) queue.add(r);
+            }
+            out.writeLong(SolutionIndex.MAGIC);
+            out.writeInt(SolutionIndex.VERSION);
+            out.writeInt(SolutionIndex.RECORD_SIZE);
+            long lastKey = 0;
+            byte[] last = new byte[SolutionIndex.SOLUTION_BYTES];
+            while (!queue.isEmpty()) {
+                RunReader r = queue.poll();
+                if (written == 0 || r.key != lastKey || !Arrays.equals(r.solution, last)) {
+                    out.writeLong(r.key);
+                    out.write(r.solution);
+                    lastKey = r.key;
+                    System.arraycopy(r.solution, 0, last, 0, last.length);
+                    written++;
+                }
+                if (r.advance()) queue.add(r);
+            }
+        } finally {
+            for (RunReader r : open) r.in.close();
+        }
+        return written;
+    }
+
+    /** Fingerprints and packed solutions held in memory, sortable by fingerprint. */
+    private static final class Run {
+        long[] keys;
+        int[] order;
+        byte[] solutions;
+        int size;
+
+        Run(int capacity) {
+            keys = new long[capacity];
+            order = new int[capacity];
+            solutions = new byte[capacity * SolutionIndex.SOLUTION_BYTES];
+        }
+
+        void add(long key, byte[] solution, int offset) { // Appends a record, doubling the arrays up to RUN_RECORDS when full.
+            if (size == keys.length) {
+                int capacity = Math.min(Math.max(1, 2 * size), RUN_RECORDS);
+                keys = Arrays.copyOf(keys, capacity);
+                order = new int[capacity];
+                solutions = Arrays.copyOf(solutions, capacity * SolutionIndex.SOLUTION_BYTES);
+            }
+            System.arraycopy(solution, offset, solutions, size * SolutionIndex.SOLUTION_BYTES, SolutionIndex.SOLUTION_BYTES);
+            keys[size++] = key;
+        }
+
+        Path write(Path dir) throws IOException { // Sorts the records and writes them to a new temporary file.
+            for (int i = 0; i < size; i++) order[i] = i;
+            sort(0, size - 1);
+            Path file = Files.createTempFile(dir, "sidx", ".run");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER))) {
+                for (int i = 0; i < size; i++) {
+                    int k = order[i];
+                    out.writeLong(keys[k]);
+                    out.write(solutions, k * SolutionIndex.SOLUTION_BYTES, SolutionIndex.SOLUTION_BYTES);
+                }
+            }
+            return file;
+        }
+
+        private void sort(int lo, int hi) { // Quicksort of order[lo..hi] by key, recursing into the smaller half.
+            while (lo < hi) {
+                long pivot = keys[order[(lo + hi) >>> 1]];
+                int i = lo, j = hi;
+                while (i <= j) {
+                    while (keys[order[i]] < pivot) i++;
+                    while (keys[order[j]] > pivot) j--;
+                    if (i <= j) {
+                        int t = order[i];
+                        order[i++] = order[j];
+                        order[j--] = t;
+                    }
+                }
+                if (j - lo < hi - i) {
+                    sort(lo, j);
+                    lo = i;
+                } else {
+                    sort(i, hi);
+                    hi = j;
+                }
+            }
+        }
+    }
+
+    /** Sequential reader over one sorted run file. */
+    private static final class RunReader {
+        final DataInputStream in;
+        final byte[] solution = new byte[SolutionIndex.SOLUTION_BYTES];
+        long key;
+
+        RunReader(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER));
+        }
+
+        boolean advance() throws IOException { // Reads the next record; false at the end of the run.
+            try {
+                key = in.readLong();
+            } catch (EOFException end) {
+                return false;
+            }
+            in.readFully(solution);
+            return true;
+        }
+    }
+}
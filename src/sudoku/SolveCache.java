@@ -0,0 +1,187 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded, thread-safe cache of {@link SolveResult}s keyed by the puzzle they describe.
+ *
+ * <p>A puzzle is packed into {@value #WORDS} {@code long}s (4 bits per cell) and keyed by
+ * a 64-bit hash of that packing. Each entry keeps the packed puzzle too, so a lookup that
+ * lands on another puzzle with the same hash is a miss rather than a wrong answer. Entries
+ * are kept in least-recently-used order and the oldest is evicted once the cache holds
+ * {@code capacity} puzzles. A lookup or insert is one hash computation and one map
+ * operation under the cache's lock.</p>
+ *
+ * <p>{@link Solver#analyze(int[])} consults {@link #shared()} before searching and stores
+ * every result it computes, so repeated analyses of the same puzzle, from the GUI, the
+ * CLI or the puzzle cache, cost one lookup. The shared cache holds
+ * {@value #DEFAULT_CAPACITY} puzzles unless {@code -Dsudoku.solveCache=N} says otherwise;
+ * {@code 0} disables it.</p>
+ */
+public final class SolveCache {
+    private static final int N = Board.SIZE * Board.SIZE;
+    private static final int WORDS = (N + 15) / 16;
+    private static final int DEFAULT_CAPACITY = 2048;
+    private static final SolveCache SHARED = new SolveCache(Integer.getInteger("sudoku.solveCache", DEFAULT_CAPACITY));
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+    private long hits = 0; // guarded by this
+    private long misses = 0; // guarded by this
+    private long evictions = 0; // guarded by this
+
+    /** A cached result and the packed puzzle it belongs to. */
+    private static final class Entry {
+        final long[] puzzle;
+        final SolveResult result;
+
+        Entry(long[] puzzle, SolveResult result) {
+            this.puzzle = puzzle;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Create an empty cache.
+     *
+     * @param capacity most puzzles kept at once; {@code 0} keeps none
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     */
+    public SolveCache(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity must not be negative");
+        this.capacity = capacity;
+    }
+
+    /**
+     * The cache shared by every {@link Solver}.
+     *
+     * @return the process-wide cache
+     */
+    public static SolveCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Look up the result for a puzzle, marking it most recently used.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @return the cached result, or {@code null} on a miss
+     * @throws IllegalArgumentException if {@code cells} has the wrong length or an out-of-range value
+     */
+    public SolveResult get(int[] cells) {
+        long[] packed = pack(cells);
+        Long key = hash(packed);
+        synchronized (this) {
+            Entry e = entries.get(key);
+            if (e != null && Arrays.equals(e.puzzle, packed)) {
+                hits++;
+                return e.result;
+            }
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Store the result for a puzzle, evicting the least recently used puzzle if full.
+     *
+     * @param cells  {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param result analysis of exactly these values
+     * @throws IllegalArgumentException if {@code cells} has the wrong length or an out-of-range value
+     */
+    public void put(int[] cells, SolveResult result) {
+        if (result == null) throw new NullPointerException("Solve result is null");
+        if (capacity == 0) return;
+        long[] packed = pack(cells);
+        Long key = hash(packed);
+        synchronized (this) {
+            entries.put(key, new Entry(packed, result));
+            if (entries.size() > capacity) {
+                Iterator<Long> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Drop every cached result. The statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /* Getter methods */
+
+    /**
+     * Gets the most puzzles this cache keeps.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of puzzles cached right now.
+     *
+     * @return entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lookups that found their puzzle.
+     *
+     * @return hit count
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find their puzzle.
+     *
+     * @return miss count
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of puzzles dropped to make room for newer ones.
+     *
+     * @return eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /* Private Methods */
+
+    private static long[] pack(int[] cells) { // 4 bits per cell, 16 cells per word.
+        if (cells == null) throw new NullPointerException("Passed array is null");
+        if (cells.length != N) throw new IllegalArgumentException("Passed array must have " + N + " cells");
+        long[] packed = new long[WORDS];
+        for (int i = 0; i < N; i++) {
+            int v = cells[i];
+            if (v < 0 || v > Board.SIZE) throw new IllegalArgumentException("Value out of range at index " + i);
+            packed[i >>> 4] |= (long) v << (4 * (i & 15));
+        }
+        return packed;
+    }
+
+    private static long hash(long[] packed) { // Mixes the packed words into one 64-bit key.
+        long h = 0;
+        for (long w : packed) {
+            h = (h ^ w) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 29;
+        }
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+}
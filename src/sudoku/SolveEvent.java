@@ -0,0 +1,97 @@
+package sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted by {@link Solver} for every analyze, count and solve call.
+ *
+ * <p>Recorded whenever a JFR session is running (for example with
+ * {@code -XX:StartFlightRecording}); when no recording is active the event costs one
+ * check per call. Fields are only filled in when the event is actually committed.</p>
+ */
+@Name("sudoku.Solve")
+@Label("Sudoku Solve")
+@Category({ "Sudoku", "Solver" })
+@Description("One solver call with its search statistics")
+@StackTrace(false)
+final class SolveEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Nodes")
+    @Description("Search nodes visited")
+    long nodes;
+
+    @Label("Backtracks")
+    @Description("Dead ends hit by the search")
+    long backtracks;
+
+    @Label("Propagations")
+    @Description("Cells placed by propagation rather than branching")
+    long propagations;
+
+    @Label("Solutions")
+    int solutions;
+
+    @Label("Status")
+    @Description("How the call ended: SOLVED, IMPOSSIBLE or EXHAUSTED")
+    String status;
+
+    @Label("Search Limit Hit")
+    @Description("Search ran out of its node budget")
+    boolean limitHit;
+
+    @Label("Cancelled")
+    @Description("Search was stopped by its cancellation token or deadline")
+    boolean cancelled;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsedNanos;
+
+    private transient long startNanos; // transient: not written to the recording
+
+    /**
+     * Start timing the call.
+     */
+    void start(){
+        begin();
+        if (isEnabled()) startNanos = System.nanoTime();
+    }
+
+    /**
+     * Fill in the statistics of a finished search and commit the event if it is recorded.
+     *
+     * @param operation solver method that ran the search
+     * @param engine    engine that performed it
+     * @param search    finished search
+     * @param solutions solutions it reported
+     * @param status    how the call ended
+     * @param token     token the search obeyed, or {@code null}
+     */
+    void finish(String operation, Solver.Engine engine, SudokuSearch search, int solutions,
+                SolveResult.Status status, CancellationToken token){
+        end();
+        if (shouldCommit()){
+            this.elapsedNanos = System.nanoTime() - startNanos;
+            this.operation = operation;
+            this.engine = engine.name();
+            this.nodes = search.getSearchCount();
+            this.backtracks = search.getBacktrackCount();
+            this.propagations = search.getPropagationCount();
+            this.solutions = solutions;
+            this.status = status.name();
+            this.cancelled = search.isSearchLimitHit() && token != null && token.isCancelled();
+            this.limitHit = search.isSearchLimitHit() && !cancelled;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package sudoku;
+
+/**
+ * Immutable outcome of a {@link Solver} analysis.
+ *
+ * <p>Holds whether the search finished, how many solutions were found (up to the solver's
+ * limit of 2), the solution itself as a flat row-major array when it is unique, and how
+ * many search nodes were visited. Results can be freely shared between threads.</p>
+ */
+public final class SolveResult {
+
+    /**
+     * How a search ended.
+     */
+    public enum Status {
+        /** At least one solution was found and the count is exact up to the limit asked for. */
+        SOLVED,
+        /** The search finished without finding a solution: the puzzle has none. */
+        IMPOSSIBLE,
+        /** The node budget, deadline or cancellation stopped the search; the count is only a lower bound. */
+        EXHAUSTED
+    }
+
+    private final Status status;
+    private final int numSolutions;
+    private final int[] solution;
+    private final long searchCount;
+
+    /**
+     * Create the result of a finished search.
+     *
+     * @param numSolutions number of solutions found (0 = unsolvable, 1 = unique, &ge;2 = multiple)
+     * @param solution     row-major solution digits, kept only when {@code numSolutions == 1}
+     * @param searchCount  search nodes visited
+     */
+    SolveResult(int numSolutions, int[] solution, long searchCount) {
+        this(numSolutions > 0 ? Status.SOLVED : Status.IMPOSSIBLE, numSolutions, solution, searchCount);
+    }
+
+    /**
+     * Create a result.
+     *
+     * @param status       how the search ended
+     * @param numSolutions number of solutions found
+     * @param solution     row-major solution digits, kept only when {@code status} is
+     *                     {@link Status#SOLVED} and {@code numSolutions == 1}
+     * @param searchCount  search nodes visited
+     */
+    SolveResult(Status status, int numSolutions, int[] solution, long searchCount) {
+        this.status = status;
+        this.numSolutions = numSolutions;
+        this.solution = (status == Status.SOLVED && numSolutions == 1 && solution != null) ? solution.clone() : null;
+        this.searchCount = searchCount;
+    }
+
+    /**
+     * Gets how the search ended.
+     *
+     * @return {@link Status#EXHAUSTED} if the search was cut off before it could decide
+     */
+    public Status getStatus() { return status; }
+
+    /**
+     * Get's the number of solutions found.
+     *
+     * @return 0 = unsolvable, 1 = unique, &ge;2 = multiple; a lower bound if the status is
+     *         {@link Status#EXHAUSTED}
+     */
+    public int getNumSolutions() { return numSolutions; }
+
+    /**
+     * Returns whether the puzzle has exactly one solution and it is held by this result.
+     *
+     * @return {@code true} if the solution is unique
+     */
+    public boolean isUnique() { return solution != null; }
+
+    /**
+     * Returns whether at least one solution was found.
+     *
+     * @return {@code true} if the puzzle is solvable
+     */
+    public boolean isSolvable() { return numSolutions > 0; }
+
+    /**
+     * Number of search nodes the analysis visited.
+     *
+     * @return nodes visited
+     */
+    public long getSearchCount() { return searchCount; }
+
+    /**
+     * Returns the unique solution as a flat array.
+     *
+     * @return a copy of the row-major solution ({@code index = r * SIZE + c}), or {@code null}
+     *         if the solution is not unique
+     */
+    public int[] getSolution() {
+        return solution == null ? null : solution.clone();
+    }
+
+    /**
+     * Get the solved value at (r,c) from the unique solution.
+     *
+     * @param r row 0..SIZE-1
+     * @param c col 0..SIZE-1
+     * @return digit 1..SIZE at (r,c)
+     * @throws IllegalStateException if the solution is not unique
+     */
+    public int solvedValueAt(int r, int c) {
+        if (solution == null) {
+            throw new IllegalStateException(status == Status.EXHAUSTED ? "Search gave up before proving a unique solution" : "No unique solution");
+        }
+        if (r < 0 || r >= Board.SIZE || c < 0 || c >= Board.SIZE) {
+            throw new ArrayIndexOutOfBoundsException("Row and/or Cell is out of bounds.");
+        }
+        return solution[r * Board.SIZE + c];
+    }
+}
@@ -1,174 +1,340 @@
 package sudoku;
 
-import util.BoardUtils;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * Backtracking Sudoku solver with solution counting.
+ * Sudoku solver with solution counting.
+ *
+ * <p>The search itself is delegated to one of the {@link Engine}s. A solver created with
+ * {@link #Solver()} uses the default engine, which is {@link Engine#PROPAGATING} unless
+ * changed with {@link #setDefaultEngine(Engine)} or at launch with
+ * {@code -Dsudoku.engine=bitmask|dlx|propagating|iterative|parallel}; an unknown name is reported
+ * on standard error and the propagating engine is used instead.</p>
  *
  * <p>Usage pattern:
  * <ol>
- *   <li>Call {@link #countSolutions(Board, int)} with a limit of 2 to classify as
- *       unsolvable (0), unique (1), or multiple (&ge;2).</li>
- *   <li>If unique, call {@link #solveBoard(Board)} to cache a solved copy for hints/checks.</li>
- *   <li>Read status via {@link #getNumSolutions()} and consult the cached grid via
- *       {@link #getSolvedBoardCopy()} or a cell accessor.</li>
+ *   <li>Call {@link #analyze(Board)} to classify a puzzle as unsolvable (0), unique (1),
+ *       or multiple (&ge;2) solutions.</li>
+ *   <li>Keep the returned {@link SolveResult}; it holds the unique solution for
+ *       hints/checks and never changes afterwards.</li>
  * </ol>
- * All solving operates on copies; the caller's board is never mutated.</p>
+ * A solver keeps no state between calls, so one instance can be shared and used from
+ * several threads at once. Analysis operates on copies; the caller's board is never
+ * mutated.</p>
+ *
+ * <p>Analyses are remembered in the shared {@link SolveCache}, so analysing a puzzle seen
+ * before (in any solver, on any thread) costs one lookup. {@link #solve(Board)} and
+ * {@link #countSolutions(Board, int)} answer from the cache too when the remembered
+ * analysis settles the question. On a cache miss the puzzle is looked up in the shared
+ * {@link SolutionIndex}, if there is one, before any search runs. A solver created with
+ * {@link #Solver(Engine, SolveCache)} uses its own cache instead, or with {@code null}
+ * none at all and no index either; bulk jobs such as {@link BatchSolver} use that so
+ * their one-off puzzles neither contend for the shared cache's lock nor push out the
+ * puzzles the GUI and CLI keep coming back to.</p>
+ *
+ * <p>Each call has an overload taking a {@link CancellationToken}, which stops the search
+ * early on cancellation or at a deadline. Every result says how the search ended
+ * ({@link SolveResult.Status}), so a search cut off by the node budget, deadline or token
+ * reports {@link SolveResult.Status#EXHAUSTED} rather than looking like an unsolvable
+ * puzzle.</p>
+ *
+ * <p>Every call emits a {@code sudoku.Solve} Flight Recorder event ({@link SolveEvent})
+ * carrying the engine, nodes, backtracks, propagations, solution count, the status, whether
+ * the node budget ran out or the token stopped the search, and the elapsed time. Calls answered from the cache or the index run no
+ * search and emit no event.</p>
  */
 public class Solver {
 
     /* Global(s) */
     private static final int SEARCH_LIMIT = 1000000;
     private static final int SOLUTION_LIMIT = 2;
-    
-    /* Variables */
-    private static int numSolutions = 0;
-    private static int searchCount = 0;
-    private static boolean isSolvable = false;
-    private static Board solvedBoard = null;
 
-    /* Private Methods */
-    private static boolean solveRec(Board board) { // Helper to the solve Method so that searchCount can be reset to 0 on call and still allow recursion.
-        searchCount++;
-        boolean solved = false;
-        if (searchCount <= SEARCH_LIMIT){
-            int[] pos = findEmpty(board);
-            if(pos == null){
-                solved = true;
-            } else {
-                int r = pos[0];
-                int c = pos[1];
-                for (int v = 1; v <= Board.SIZE; v++){
-                    if (board.isValidPlacement(r, c, v)){
-                        board.cell(r, c).setValue(v);
-                        if (solveRec(board)){
-                            solved = true;
-                        } else {
-                            board.cell(r, c).setValue(0);
-                        }
-                    }
-                }   
+    /**
+     * Available search backends.
+     */
+    public enum Engine {
+        /** Row-major backtracking over row/column/box bitmasks ({@link BitmaskSolver}). */
+        BITMASK {
+            @Override SudokuSearch newSearch(int[] cells, long searchLimit) { return new BitmaskSolver(cells, searchLimit); }
+        },
+        /** Dancing Links exact-cover search ({@link DlxSolver}). */
+        DLX {
+            @Override SudokuSearch newSearch(int[] cells, long searchLimit) { return new DlxSolver(cells, searchLimit); }
+        },
+        /** Naked/hidden single propagation with fewest-candidates branching ({@link PropagatingSolver}). */
+        PROPAGATING {
+            @Override SudokuSearch newSearch(int[] cells, long searchLimit) { return new PropagatingSolver(cells, searchLimit); }
+        },
+        /** Non-recursive, allocation-free fewest-candidates search on a flat byte grid ({@link IterativeSolver}). */
+        ITERATIVE {
+            @Override SudokuSearch newSearch(int[] cells, long searchLimit) { return new IterativeSolver(cells, searchLimit); }
+        },
+        /**
+         * Fork/join fewest-candidates search on the common pool ({@link ParallelCounter}), for
+         * counting the solutions of sparse boards. Each worker of the pool gets the node budget
+         * a sequential engine would have.
+         */
+        PARALLEL {
+            @Override SudokuSearch newSearch(int[] cells, long searchLimit) {
+                return new ParallelCounter(cells, searchLimit * ForkJoinPool.getCommonPoolParallelism());
             }
-        }
-        return solved;
+        };
+
+        abstract SudokuSearch newSearch(int[] cells, long searchLimit);
     }
-    
-    private static int[] findEmpty(Board board){ // Searches for empty cells and returns it's location. 
+
+    /* Variables */
+    private static volatile Engine defaultEngine = engineFromProperty();
+    private final Engine engine;
+    private final SolveCache cache; // null: no cache and no index
+
+    /* Constructors */
+
+    /**
+     * Create a solver that uses the current default engine.
+     */
+    public Solver(){
+        this(defaultEngine);
+    }
+
+    /**
+     * Create a solver that uses a specific engine.
+     *
+     * @param engine search backend (not {@code null})
+     */
+    public Solver(Engine engine){
+        this(engine, SolveCache.shared());
+    }
+
+    /**
+     * Create a solver with its own cache, or with no cache and no {@link SolutionIndex}.
+     *
+     * @param engine search backend (not {@code null})
+     * @param cache  cache to consult and fill, or {@code null} to always search
+     */
+    public Solver(Engine engine, SolveCache cache){
+        if (engine == null) throw new NullPointerException("Engine is null");
+        this.engine = engine;
+        this.cache = cache;
+    }
+
+    /* Private Methods */
+    private static void fillFrom(Board board, int[] values){ // Writes a flat solution back into the board's editable cells.
         for (int r = 0; r < Board.SIZE; r++){
             for (int c = 0; c < Board.SIZE; c++){
-                if(board.cell(r, c).getValue() == 0){
-                    return new int[]{r,c};
-                }
+                board.cell(r, c).setValue(values[r * Board.SIZE + c]);
             }
         }
-        return null;
-    }
-
-    private static int countRec(Board b, int limit){ // Helper method for countSolutions so that searchCount can be reset to 0 on call and still allow recursion.
-        searchCount++;
-        if (searchCount > SEARCH_LIMIT) return 0;
-        int[] pos = findEmpty(b);
-        if (pos == null) return 1; // one solution found
-        int r = pos[0], c = pos[1];
-        int solutions = 0;
-        for (int v = 1; v <= Board.SIZE; v++){
-            if (b.isValidPlacement(r, c, v)){
-                b.cell(r, c).setValue(v);
-                solutions += countRec(b, limit - solutions);
-                if (solutions >= limit){
-                    b.cell(r, c).setValue(0);
-                    return solutions; // short-circuit
-                }
-                b.cell(r, c).setValue(0);
+    }
+
+    private static Engine engineFromProperty(){ // Engine named by -Dsudoku.engine, or PROPAGATING if unset or unknown.
+        String name = System.getProperty("sudoku.engine", "propagating").trim();
+        try {
+            return Engine.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Unknown sudoku.engine '" + name + "', using propagating (valid: "
+                + Arrays.toString(Engine.values()).toLowerCase(Locale.ROOT) + ")");
+            return Engine.PROPAGATING;
+        }
+    }
+
+    private SolveResult remembered(int[] cells){ // Cached or indexed analysis, or null if neither knows the puzzle.
+        if (cache == null) return null;
+        SolveResult result = cache.get(cells);
+        if (result == null){
+            SolutionIndex index = SolutionIndex.shared();
+            int[] solution = (index != null) ? index.lookup(cells) : null;
+            if (solution != null){
+                result = new SolveResult(1, solution, 0);
+                cache.put(cells, result);
             }
         }
-        return solutions;
+        return result;
     }
-    
-    private static int countSolutions(Board original, int limit){ // Counts the number of solutions up to a limit.
-        if (limit < 1) limit = 1;
-        searchCount = 0;
-        Board copy = BoardUtils.copy(original);
-        int count = countRec(copy, limit);
-        numSolutions = count;
-        isSolvable = (count > 0);
-        return count;
+
+    private static SolveResult.Status statusOf(SudokuSearch search, int count){ // How a search that found count solutions ended.
+        if (search.isSearchLimitHit()) return SolveResult.Status.EXHAUSTED;
+        return (count > 0) ? SolveResult.Status.SOLVED : SolveResult.Status.IMPOSSIBLE;
     }
 
     /* Public Methods */
 
     /**
-     * Get the solved value at (r,c) from the cached unique solution.
+     * Decide uniqueness by counting solutions up to 2, keeping the solution if it is unique.
      *
-     * @param r row 0..SIZE-1
-     * @param c col 0..SIZE-1
-     * @return digit 1..SIZE at (r,c) in the cached unique solution
-     * @throws IllegalStateException if no unique solution is cached
+     * <p>Every non-zero value on the board is treated as fixed; pass a board holding only
+     * the givens (see {@link util.BoardUtils#givensOnly(Board)}) to analyse the puzzle
+     * rather than the player's current position.</p>
+     *
+     * @param original starting puzzle (not mutated)
+     * @return the analysis outcome
      */
-    public static int solvedValueAt(int r, int c){ // Returns value in a specific cell of the solution board.
-        if (solvedBoard == null || numSolutions > 1) throw new IllegalStateException("No solved board cached");
-        return solvedBoard.cell(r, c).getValue();
+    public SolveResult analyze(Board original){
+        return analyze(original.toArray(), null);
     }
 
     /**
-     * Solve a board in place (backtracking).
-     * <p>This method mutates its argument; callers should pass a copy.</p>
+     * Analyse a board as {@link #analyze(Board)} does, stopping early when {@code token} is
+     * cancelled.
      *
-     * @param board working board to solve
-     * @return {@code true} if a solution was found
+     * @param original starting puzzle (not mutated)
+     * @param token    cancellation or deadline to obey, or {@code null} for none
+     * @return the analysis outcome; {@link SolveResult.Status#EXHAUSTED} if the search was cut off
+     */
+    public SolveResult analyze(Board original, CancellationToken token){
+        return analyze(original.toArray(), token);
+    }
+
+    /**
+     * Decide uniqueness of a flat puzzle by counting solutions up to 2.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @return the analysis outcome
+     * @throws IllegalArgumentException if {@code cells} has the wrong length or an out-of-range value
+     */
+    public SolveResult analyze(int[] cells){
+        return analyze(cells, null);
+    }
+
+    /**
+     * Analyse a flat puzzle as {@link #analyze(int[])} does, stopping early when
+     * {@code token} is cancelled. Cut-off analyses are not cached.
+     *
+     * @param cells {@code SIZE*SIZE} values in row-major order, {@code 0} for empty (not mutated)
+     * @param token cancellation or deadline to obey, or {@code null} for none
+     * @return the analysis outcome; {@link SolveResult.Status#EXHAUSTED} if the search was cut off
+     * @throws IllegalArgumentException if {@code cells} has the wrong length or an out-of-range value
      */
-    public static boolean solve(Board board){ // Solves the board if possible
-        searchCount = 0;
-        return solveRec(board);
+    public SolveResult analyze(int[] cells, CancellationToken token){
+        SolveResult cached = remembered(cells);
+        if (cached != null) return cached;
+        SolveEvent event = new SolveEvent();
+        event.start();
+        SudokuSearch search = engine.newSearch(cells, SEARCH_LIMIT);
+        search.setCancellation(token);
+        int count = search.countSolutions(SOLUTION_LIMIT);
+        SolveResult.Status status = statusOf(search, count);
+        event.finish("analyze", engine, search, count, status, token);
+        SolveResult result = new SolveResult(status, count, search.getSolution(), search.getSearchCount());
+        if (cache != null && !search.isSearchLimitHit()) cache.put(cells, result); // a cut-off search proves nothing
+        return result;
     }
 
     /**
-     * Decide uniqueness by counting up to a limit (usually 2),
-     * and if exactly one solution exists, cache a solved copy internally.
+     * Count the solutions of a board up to a limit.
      *
-     * <p>This method does not mutate {@code original} and does not change
-     * {@link #getNumSolutions()} itself; that value is set by {@link #countSolutions(Board, int)}.</p>
+     * @param original starting puzzle (not mutated)
+     * @param limit    stop once this many solutions have been found
+     * @return number of solutions found, at most {@code limit}; a lower bound if the search
+     *         ran out of nodes
+     */
+    public int countSolutions(Board original, int limit){
+        return countSolutions(original, limit, null).getNumSolutions();
+    }
+
+    /**
+     * Count the solutions of a board up to a limit, stopping early when {@code token} is
+     * cancelled.
+     * <p>The result's solution count is at most {@code limit}. It holds the solution only
+     * when {@code limit} is at least 2 and exactly one solution was found, since a smaller
+     * limit proves nothing about uniqueness.</p>
      *
      * @param original starting puzzle (not mutated)
+     * @param limit    stop once this many solutions have been found
+     * @param token    cancellation or deadline to obey, or {@code null} for none
+     * @return the count and how the search ended; {@link SolveResult.Status#EXHAUSTED} if
+     *         the search was cut off, in which case the count is a lower bound
      */
-    public static void solveBoard(Board original){
-        countSolutions(original, SOLUTION_LIMIT);
-        if (numSolutions == 1){
-            solvedBoard = BoardUtils.copy(original);
-            solve(solvedBoard);
-        } else {
-            solvedBoard = null;
+    public SolveResult countSolutions(Board original, int limit, CancellationToken token){
+        int[] cells = original.toArray();
+        if (limit <= SOLUTION_LIMIT){
+            SolveResult cached = remembered(cells);
+            if (cached != null){
+                int count = Math.min(cached.getNumSolutions(), Math.max(limit, 1));
+                int[] solution = (limit >= SOLUTION_LIMIT) ? cached.getSolution() : null; // as for a fresh search
+                return new SolveResult(cached.getStatus(), count, solution, 0);
+            }
         }
+        SolveEvent event = new SolveEvent();
+        event.start();
+        SudokuSearch search = engine.newSearch(cells, SEARCH_LIMIT);
+        search.setCancellation(token);
+        int count = search.countSolutions(limit);
+        SolveResult.Status status = statusOf(search, count);
+        event.finish("count", engine, search, count, status, token);
+        int[] solution = (limit >= SOLUTION_LIMIT) ? search.getSolution() : null;
+        return new SolveResult(status, count, solution, search.getSearchCount());
     }
 
-    /* Getter methods */
+    /**
+     * Solve a board in place.
+     * <p>This method mutates its argument; callers should pass a copy.</p>
+     *
+     * @param board working board to solve
+     * @return {@code true} if a solution was found
+     */
+    public boolean solve(Board board){ // Solves the board if possible
+        return solve(board, null) == SolveResult.Status.SOLVED;
+    }
 
     /**
-     * Returns whether or not the algorithm was able to solve the board.
-     * 
-     * @return true is a singular solution has been found and stored.
+     * Solve a board in place, stopping early when {@code token} is cancelled.
+     * <p>This method mutates its argument only when a solution is found; callers should
+     * pass a copy.</p>
+     *
+     * @param board working board to solve
+     * @param token cancellation or deadline to obey, or {@code null} for none
+     * @return {@link SolveResult.Status#SOLVED} if the board was filled in,
+     *         {@link SolveResult.Status#IMPOSSIBLE} if it has no solution, or
+     *         {@link SolveResult.Status#EXHAUSTED} if the search was cut off first
      */
-    public static boolean isSolvable(){
-        return isSolvable;
+    public SolveResult.Status solve(Board board, CancellationToken token){
+        int[] cells = board.toArray();
+        SolveResult cached = remembered(cells);
+        if (cached != null && (cached.isUnique() || !cached.isSolvable())){
+            if (cached.isUnique()) fillFrom(board, cached.getSolution());
+            return cached.getStatus();
+        }
+        SolveEvent event = new SolveEvent();
+        event.start();
+        SudokuSearch search = engine.newSearch(cells, SEARCH_LIMIT);
+        search.setCancellation(token);
+        int count = search.countSolutions(1);
+        SolveResult.Status status = (count > 0) ? SolveResult.Status.SOLVED : statusOf(search, count);
+        event.finish("solve", engine, search, count, status, token);
+        if (count > 0) fillFrom(board, search.getSolution());
+        return status;
     }
 
     /**
-     * Get's the number of solutions found.
-     * 
-     * @return the number of solutions found by the most recent analysis
-     *         (0 = unsolvable, 1 = unique, ≥2 = multiple)
+     * Select the search backend used by solvers created afterwards with {@link #Solver()}.
+     *
+     * @param e engine to use (not {@code null})
      */
-    public static int getNumSolutions(){
-        return numSolutions;
+    public static void setDefaultEngine(Engine e){
+        if (e == null) throw new NullPointerException("Engine is null");
+        defaultEngine = e;
     }
 
+    /* Getter methods */
+
     /**
-     * Gets the solved board if one exists. 
-     * 
-    * @return a defensive copy of the cached solved board if one exists (unique case),
-    *         otherwise {@code null}
-    */ 
-    public static Board getSolvedBoardCopy(){
-        return solvedBoard == null ? null : BoardUtils.copy(solvedBoard);
+     * Gets the search backend new solvers use by default.
+     *
+     * @return the default engine
+     */
+    public static Engine getDefaultEngine(){
+        return defaultEngine;
+    }
+
+    /**
+     * Gets the search backend this solver uses.
+     *
+     * @return the engine
+     */
+    public Engine getEngine(){
+        return engine;
     }
 }
@@ -5,18 +5,21 @@ package sudoku;
  * The final integrated GUI uses {@link ui.SudokuApp} as its entry point.
  */
 
+import java.io.IOException;
 import java.util.Scanner;
 
+import util.BoardUtils;
+
 /**
  * Command-line entry point and game loop.
  * Handles loading puzzles (built-ins or custom 81-char strings),
  * user commands (e.g., set, solve, check, help, quit), and printing via {@link Renderer}.
  *
  * <p>On load, the game triggers solver analysis to report unsolvable/multiple/unique,
- * and caches a solved copy only for unique puzzles.</p>
+ * and keeps the {@link SolveResult} (holding the solution only for unique puzzles).</p>
  */
 public class SudokuGame {
-    
+
     /**
      * Launch the CLI.
      *
@@ -51,11 +54,14 @@ public class SudokuGame {
             }
         }
 
-        Solver.solveBoard(board);
+        Solver solver = new Solver();
+        SolveResult analysis = solver.analyze(board);
 
-        if(Solver.getNumSolutions() == 0){
-            System.out.println("Warning: puzzle appears unsolvable. Disabling unique solution checks");
-        }else if (Solver.getNumSolutions() > 1){
+        if(analysis.getStatus() == SolveResult.Status.EXHAUSTED){
+            System.out.println("Warning: search gave up before deciding the puzzle. Disabling unique solution checks");
+        }else if(analysis.getNumSolutions() == 0){
+            System.out.println("Warning: puzzle is unsolvable. Disabling unique solution checks");
+        }else if (analysis.getNumSolutions() > 1){
             System.out.println("Warning: puzzle appears to have multiple solutions. Disabling unique solution checks");
         }
 
@@ -80,8 +86,11 @@ public class SudokuGame {
                         set r c v                - place a value (1-9) at row r, col c
                         clear r c                - clear a non-given cell at row r, col c
                         check                    - check if the puzzle is solved
+                        rate                     - rate the puzzle by the solving techniques it needs
                         load easy|medium|hard    - load a preset puzzle
                         load <81-char-string>    - load a custom puzzle string
+                        load bank <clues>        - load a saved puzzle with that many givens (e.g. 23-38)
+                        load gen <clues> [seed]  - generate a new puzzle, or regenerate the one for a seed
                         quit                     - exit the game
                         """);
                 }
@@ -101,7 +110,15 @@ public class SudokuGame {
                     choice = tokens[1].toLowerCase();
                     seed = Seeds.BY_NAME.get(choice.toLowerCase());
                     
-                    if (seed == null){
+                    if (choice.equals("bank")){
+                        Board drawn = drawFromBank(tokens);
+                        if (drawn == null) break;
+                        board = drawn;
+                    } else if (choice.equals("gen")){
+                        Board generated = generateFromSeed(tokens);
+                        if (generated == null) break;
+                        board = generated;
+                    } else if (seed == null){
                         if (choice.length() != 81){
                             System.out.println("Invalid puzzle string. Defaulting to EASY.");
                             board = Board.fromString(Seeds.EASY);
@@ -123,10 +140,12 @@ public class SudokuGame {
                     }
 
                     if (board != null){
-                        Solver.solveBoard(board);
-                        if(Solver.getNumSolutions() == 0){
-                            System.out.println("Warning: puzzle appears unsolvable. Disabling unique solution checks");
-                        }else if (Solver.getNumSolutions() > 1){
+                        analysis = solver.analyze(board);
+                        if(analysis.getStatus() == SolveResult.Status.EXHAUSTED){
+                            System.out.println("Warning: search gave up before deciding the puzzle. Disabling unique solution checks");
+                        }else if(analysis.getNumSolutions() == 0){
+                            System.out.println("Warning: puzzle is unsolvable. Disabling unique solution checks");
+                        }else if (analysis.getNumSolutions() > 1){
                             System.out.println("Warning: puzzle appears to have multiple solutions. Disabling unique solution checks");
                         }
                         System.out.println("Current board:");
@@ -135,11 +154,14 @@ public class SudokuGame {
                 }
                 case "print" -> { Renderer.print(board); }
                 case "solve" -> {
-                    if(Solver.solve(board)){
+                    SolveResult.Status status = solver.solve(board, null);
+                    if(status == SolveResult.Status.SOLVED){
                         System.out.println("Sudoku Solved!");
                         Renderer.print(board);
+                    }else if(status == SolveResult.Status.IMPOSSIBLE){
+                        System.out.println("No solution exists");
                     }else {
-                        System.out.println("No solution found");
+                        System.out.println("Search gave up before finding a solution");
                     }
                 }
                 case "set" -> {
@@ -176,7 +198,7 @@ public class SudokuGame {
                             break;
                         }
 
-                        if (Solver.getNumSolutions() == 1 && v != Solver.solvedValueAt(r, c)){
+                        if (analysis.isUnique() && v != analysis.solvedValueAt(r, c)){
                             System.out.println("This value doesn't match the unique solution");
                             break;
                         }
@@ -221,6 +243,10 @@ public class SudokuGame {
                 case "check" -> {
                     System.out.println(board.isSolved() ? "Solved!" : "Not solved.");
                 }
+                case "rate" -> {
+                    DifficultyRating rating = new DifficultyRater().rate(BoardUtils.givensOnly(board));
+                    System.out.println("Difficulty: " + rating);
+                }
                 case "quit" -> {
                     System.out.println("Goodbye!");
                     in.close();
@@ -232,4 +258,53 @@ public class SudokuGame {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Draw a random puzzle from the default {@link PuzzleBank} for {@code load bank <clues>},
+     * printing why if none can be drawn.
+     *
+     * @param tokens the command's tokens
+     * @return the puzzle, or {@code null} if none was drawn
+     */
+    private static Board drawFromBank(String[] tokens){
+        Board drawn = null;
+        if (tokens.length < 3){
+            System.out.println("Load bank needs a clue count (e.g., load bank 28)");
+        } else {
+            try (PuzzleBank bank = new PuzzleBank(PuzzleBank.defaultPath())) {
+                int clues = Integer.parseInt(tokens[2]);
+                drawn = bank.drawByClues(clues);
+                if (drawn == null) System.out.println("No saved puzzles for " + clues + " clues (bank holds " + bank.size() + ")");
+            } catch (NumberFormatException ex) {
+                System.out.println("Load bank uses an integer clue count (e.g., load bank 28)");
+            } catch (IOException ex) {
+                System.out.println("Could not read puzzle bank: " + ex.getMessage());
+            }
+        }
+        return drawn;
+    }
+
+    /**
+     * Generates the puzzle for {@code load gen <clues> [seed]}, printing the seed so the
+     * same puzzle can be loaded again later.
+     *
+     * @param tokens the command's tokens
+     * @return the generated puzzle, or {@code null} after printing why not
+     */
+    private static Board generateFromSeed(String[] tokens){
+        Board generated = null;
+        if (tokens.length < 3){
+            System.out.println("Load gen needs a clue count (e.g., load gen 28 or load gen 28 <seed>)");
+        } else {
+            try {
+                int clues = Integer.parseInt(tokens[2]);
+                long seed = (tokens.length > 3) ? Long.parseLong(tokens[3]) : Generator.newSeed();
+                generated = Generator.generateUniqueParallel(seed, clues, Generator.DEFAULT_ATTEMPTS);
+                System.out.println("Puzzle seed: " + seed + " (reload with: load gen " + clues + " " + seed + ")");
+            } catch (NumberFormatException ex) {
+                System.out.println("Load gen uses an integer clue count and seed (e.g., load gen 28 12345)");
+            }
+        }
+        return generated;
+    }
+}
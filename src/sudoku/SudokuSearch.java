@@ -0,0 +1,68 @@
+package sudoku;
+
+/**
+ * A single search over a flat Sudoku puzzle, as run by one of the {@link Solver.Engine}s.
+ *
+ * <p>Implementations are built from a row-major array of {@code SIZE*SIZE} values
+ * ({@code 0} for empty) and a node budget. They are single-threaded and are meant
+ * to be created per search. A {@link CancellationToken} set with
+ * {@link #setCancellation(CancellationToken)} is polled every
+ * {@value CancellationToken#CHECK_INTERVAL} nodes, on the same branch as the node budget,
+ * so an unset token costs nothing.</p>
+ */
+public interface SudokuSearch {
+
+    /**
+     * Count solutions up to {@code limit}, remembering the first one found.
+     *
+     * @param limit stop once this many solutions have been found (values &lt; 1 are treated as 1)
+     * @return number of solutions found (0 if none, or if the search limit ran out or the
+     *         search was cancelled first)
+     */
+    int countSolutions(int limit);
+
+    /**
+     * Returns the first solution found by the last {@link #countSolutions(int)} call.
+     *
+     * @return a row-major array of digits, or {@code null} if no solution was found
+     */
+    int[] getSolution();
+
+    /**
+     * Number of search nodes visited by the last {@link #countSolutions(int)} call.
+     *
+     * @return nodes visited
+     */
+    long getSearchCount();
+
+    /**
+     * Number of dead ends hit by the last {@link #countSolutions(int)} call: nodes where an
+     * open cell had no candidate left or propagation ran into a contradiction.
+     *
+     * @return dead ends hit
+     */
+    long getBacktrackCount();
+
+    /**
+     * Number of cells the last {@link #countSolutions(int)} call placed by propagation
+     * rather than by branching. Engines that do not propagate report 0.
+     *
+     * @return forced placements
+     */
+    long getPropagationCount();
+
+    /**
+     * Whether the last {@link #countSolutions(int)} call stopped because it ran out of
+     * search nodes or was cancelled, in which case its count is only a lower bound.
+     *
+     * @return {@code true} if the search limit was hit or the search was cancelled
+     */
+    boolean isSearchLimitHit();
+
+    /**
+     * Make later {@link #countSolutions(int)} calls stop early once {@code token} is cancelled.
+     *
+     * @param token token to poll, or {@code null} to only obey the node budget
+     */
+    void setCancellation(CancellationToken token);
+}
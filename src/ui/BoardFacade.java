@@ -1,7 +1,12 @@
 package ui;
 
+import java.time.Duration;
+
 import sudoku.Board;
+import sudoku.CancellationToken;
+import sudoku.SolveResult;
 import sudoku.Solver;
+import util.BoardUtils;
 
 /**
  * Facade that bridges the mutable {@link Board} model with the {@link BoardView} interface.
@@ -10,18 +15,40 @@ import sudoku.Solver;
  * through {@link #trySet(int, int, int)}. The facade delegates all reads and writes
  * directly to the underlying {@link Board}, which maintains both cell values and
  * their "given" status.
+ * <p>
+ * Each facade also holds its own {@link SolveResult} for the puzzle it wraps, so hints and
+ * correctness checks never depend on whichever puzzle was solved most recently elsewhere.
  */
 public class BoardFacade implements BoardView {
+    /** Longest the constructor spends analysing a puzzle before treating it as undecided. */
+    static final Duration ANALYSIS_TIMEOUT = Duration.ofSeconds(2);
     private final Board board;
+    private final SolveResult solution;
 
     /**
      * Constructs a {@code BoardFacade} that wraps the provided {@link Board}.
      * The facade does not copy board data; all accessors and mutations
-     * operate on the same underlying model instance.
+     * operate on the same underlying model instance. The puzzle's givens are
+     * analysed once here with a fresh {@link Solver}, for at most
+     * {@link #ANALYSIS_TIMEOUT}.
      *
      * @param board the mutable Sudoku {@link Board} to expose
      */
-    public BoardFacade(Board board) { this.board = board; }
+    public BoardFacade(Board board) {
+        this(board, new Solver().analyze(BoardUtils.givensOnly(board), CancellationToken.withTimeout(ANALYSIS_TIMEOUT)));
+    }
+
+    /**
+     * Constructs a {@code BoardFacade} around a board whose puzzle has already been analysed.
+     *
+     * @param board    the mutable Sudoku {@link Board} to expose
+     * @param solution analysis of {@code board}'s givens
+     */
+    public BoardFacade(Board board, SolveResult solution) {
+        if (solution == null) throw new NullPointerException("Solve result is null");
+        this.board = board;
+        this.solution = solution;
+    }
 
     /**
      * Returns the digit currently stored at the given cell.
@@ -91,31 +118,29 @@ public class BoardFacade implements BoardView {
     /**
      * Determines whether the current puzzle has exactly one valid solution.
      * <p>
-     * This method queries the {@link sudoku.Solver} to check whether a solved
-     * board has been computed and that the number of identified solutions is
-     * exactly one. It performs no solving itself.
+     * This method consults the {@link SolveResult} computed for this facade's
+     * puzzle. It performs no solving itself.
      *
-     * @return {@code true} if a solved board exists and the solver reports
-     *         exactly one solution; {@code false} otherwise
+     * @return {@code true} if the puzzle has exactly one solution; {@code false} otherwise,
+     *         including when the analysis gave up before deciding
      */
     @Override
     public boolean hasUniqueSolution(){
-        return Solver.getSolvedBoardCopy() != null && Solver.getNumSolutions() == 1;
+        return solution.isUnique();
     }
 
     /**
-     * Returns the solved digit for the given cell from the {@link sudoku.Solver}.
-     * <p>
-     * This assumes the solver has already been run on a compatible board and that
-     * the solved state is still cached.
+     * Returns the solved digit for the given cell from this facade's {@link SolveResult}.
      *
      * @param r row index
      * @param c column index
      * @return the solved digit for {@code (r, c)}
+     * @throws IllegalStateException if the puzzle does not have a unique solution, or the
+     *         analysis gave up before proving one
      */
     @Override
     public int solutionAt(int r, int c){
-        return Solver.solvedValueAt(r,c);
+        return solution.solvedValueAt(r, c);
     }
 
     /**
@@ -10,7 +10,6 @@ import java.util.ArrayDeque;
 import java.util.Random;
 
 import sudoku.Board;
-import sudoku.Solver;
 
 /**
  * Main board component that lays out a SIZE×SIZE grid of {@link CellView}s,
@@ -233,7 +232,7 @@ public class BoardPanel extends JPanel {
      * <p>
      * This method:
      * <ul>
-     *   <li>Requires that {@link sudoku.Solver} has a solved board cached.</li>
+     *   <li>Requires that the {@link ui.BoardView} reports a unique solution.</li>
      *   <li>Builds a list of cells that are either empty or contain an incorrect value.</li>
      *   <li>Picks one at random and fills it with the correct digit.</li>
      *   <li>Temporarily disables pencil mode while inserting the final value.</li>
@@ -241,13 +240,13 @@ public class BoardPanel extends JPanel {
      * The chosen cell is also selected in the UI.
      */
     public void giveHint(){
-        if (Solver.getSolvedBoardCopy() != null){
+        if (board.hasUniqueSolution()){
             List<int[]> candidates = new ArrayList<>();
             for (int r = 0; r < Board.SIZE; r++){
                 for (int c = 0; c < Board.SIZE; c++){
                     if(!board.isGiven(r, c)){
                         int curr = board.get(r, c);
-                        int sol = Solver.solvedValueAt(r, c);
+                        int sol = board.solutionAt(r, c);
                         if (curr == 0 || curr != sol){
                             candidates.add(new int[]{r,c});
                         }
@@ -258,7 +257,7 @@ public class BoardPanel extends JPanel {
             if(!candidates.isEmpty()){
                 int[] pick = candidates.get(new Random().nextInt(candidates.size()));
                 int r = pick[0], c = pick[1];
-                int hint = Solver.solvedValueAt(r, c);
+                int hint = board.solutionAt(r, c);
                 setSelectedCell(r, c);
                 if(pencilMode){
                     pencilMode = false;
@@ -67,22 +67,17 @@ public interface BoardView {
     boolean tryClear(int r, int c);
 
     /**
-     * Returns the solved digit for the given cell from the {@link sudoku.Solver}.
-     * <p>
-     * This assumes the solver has already been run on a compatible board and that
-     * the solved state is still cached.
+     * Reports whether the puzzle behind this view has exactly one solution,
+     * as determined by its {@link sudoku.SolveResult}.
      *
-     * @param r row index
-     * @param c column index
-     * @return the solved digit for {@code (r, c)}
+     * @return {@code true} if a unique solution is known
      */
     boolean hasUniqueSolution();
 
     /**
-     * Returns the solved digit for the given cell from the {@link sudoku.Solver}.
+     * Returns the solved digit for the given cell from the puzzle's {@link sudoku.SolveResult}.
      * <p>
-     * This assumes the solver has already been run on a compatible board and that
-     * the solved state is still cached.
+     * Only meaningful when {@link #hasUniqueSolution()} is {@code true}.
      *
      * @param r row index
      * @param c column index
@@ -1,21 +1,30 @@
 package ui;
 
 import javax.swing.SwingUtilities;
+import java.io.IOException;
 import sudoku.*;
 
 /**
  * Application entry point for JSudoku.
  * <p>
- * Generates a new puzzle at the default difficulty using
- * {@link sudoku.Generator#generateUnique(int, int)}, solves it once to cache
- * the solution in {@link sudoku.Solver}, wraps the board in a {@link BoardFacade},
- * and shows the main {@link ui.SudokuFrame}.
+ * Opens the {@link PuzzleBank} at {@link PuzzleBank#defaultPath()} so puzzles from earlier
+ * sessions can be reused and new ones are kept, takes a puzzle at the default difficulty
+ * from {@link SudokuFrame#PUZZLES} (generating it on the main thread rather than the event
+ * thread if neither the cache nor the bank has one), starts the cache filling every
+ * other difficulty in the background, wraps the board in a
+ * {@link BoardFacade} (which solves it once and keeps the solution), and shows
+ * the main {@link ui.SudokuFrame}.
  */
 public class SudokuApp {
     public static void main(String[] args){
+        try {
+            SudokuFrame.PUZZLES.archiveTo(new PuzzleBank(PuzzleBank.defaultPath()));
+        } catch (IOException ex){
+            System.err.println("Puzzle bank unavailable: " + ex.getMessage());
+        }
+        Board start = SudokuFrame.PUZZLES.take(SudokuFrame.EASY);
+        SudokuFrame.PUZZLES.prefill(SudokuFrame.MEDIUM, SudokuFrame.HARD, SudokuFrame.EXPERT, SudokuFrame.EXTREME);
         SwingUtilities.invokeLater(() -> {
-            Board start = Generator.generateUnique(SudokuFrame.EASY, SudokuFrame.MAXATTEMPTS);
-            Solver.solveBoard(start);
             BoardFacade view = new BoardFacade(start);
             SudokuFrame frame = new SudokuFrame(view);
             frame.setVisible(true);
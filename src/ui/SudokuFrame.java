@@ -7,9 +7,9 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.KeyEvent;
 import java.io.*;
+import java.time.Duration;
 
 import sudoku.*;
-import util.BoardUtils;
 
 /**
  * Top-level application window for JSudoku.
@@ -18,13 +18,18 @@ import util.BoardUtils;
  * and Settings → Colors), and the logic to swap in a new puzzle or persist/load a game.
  */
 public class SudokuFrame extends JFrame {
-    public static final int MAXATTEMPTS = 6;
+    public static final int MAXATTEMPTS = Generator.DEFAULT_ATTEMPTS;
     public static final int EASY = 38;
-    private final int MEDIUM = 35;
-    private final int HARD = 31;
-    private final int EXPERT = 28;
-    private final int EXTREME = 23;
+    public static final int MEDIUM = 35;
+    public static final int HARD = 31;
+    public static final int EXPERT = 28;
+    public static final int EXTREME = 23;
+    /** Ready-made puzzles for every difficulty; depth set with {@code -Dsudoku.cacheDepth=N} (default 3). */
+    static final PuzzleCache PUZZLES = new PuzzleCache(Integer.getInteger("sudoku.cacheDepth", 3), MAXATTEMPTS);
+    /** Longest New Game waits to generate a puzzle; set with {@code -Dsudoku.newGameMillis=N} (default 1500). */
+    static final Duration NEW_GAME_BUDGET = Duration.ofMillis(Long.getLong("sudoku.newGameMillis", 1500));
     private BoardPanel boardPanel;
+    private JMenu newMenu;
     private boolean pencilMode = false;
     private JCheckBoxMenuItem pencilItem;
 
@@ -84,7 +89,7 @@ public class SudokuFrame extends JFrame {
     private JMenuBar createMenuBar(){
         JMenuBar bar = new JMenuBar();
         JMenu filMenu = new JMenu("File");
-        JMenu newMenu = new JMenu("New Game");
+        newMenu = new JMenu("New Game");
         String[] diffs = {"Easy", "Medium", "Hard", "Expert", "Extreme"};
         for (String d : diffs){
             JMenuItem item = new JMenuItem(d);
@@ -185,16 +190,18 @@ public class SudokuFrame extends JFrame {
         }else if ("extreme".equals(label)){
             difficulty = EXTREME;
         }
-        startRandomPuzzle(difficulty, MAXATTEMPTS);
+        startRandomPuzzle(difficulty);
 
     }
 
     /**
      * Replaces the center {@link BoardPanel} with a new one for the provided view.
-     * Ensures proper removal/addition in the content pane and triggers layout/paint.
+     * Ensures proper removal/addition in the content pane and triggers layout/paint,
+     * and resets the title.
      * @param view the {@link ui.BoardView} to display
      */
     private void setBoardView(BoardView view){
+        setTitle("JSudoku");
         if (boardPanel != null){
             getContentPane().remove(boardPanel);
         }
@@ -276,24 +283,14 @@ public class SudokuFrame extends JFrame {
                 ? Board.fromString(values, mask)
                 : Board.fromString(values);
             
-            Board baseForSolve = Board.fromString(values, mask);
-            for(int r = 0; r < Board.SIZE; r++){
-                for (int c = 0; c < Board.SIZE; c++){
-                    if(!baseForSolve.cell(r, c).isGiven()){
-                        baseForSolve.cell(r, c).setValue(0);
-                    }
-                }
-            }
-            
-            Solver.solveBoard(baseForSolve);
             BoardView view = new BoardFacade(core);
             setBoardView(view);
-            if(Solver.getSolvedBoardCopy() != null){
+            if(view.hasUniqueSolution()){
                 for (int r = 0; r < Board.SIZE; r++){
                     for (int c = 0; c < Board.SIZE; c++){
                         if(!view.isGiven(r, c)){
                             int v = view.get(r, c);
-                            if (v != 0 && v != Solver.solvedValueAt(r, c)){
+                            if (v != 0 && v != view.solutionAt(r, c)){
                                 boardPanel.setIncorrectAt(r, c, true);
                             }
                         }
@@ -340,43 +337,67 @@ public class SudokuFrame extends JFrame {
     }
 
     /**
-     * Generates and displays a new random puzzle at the given difficulty.
+     * Displays a new random puzzle at the given difficulty.
      * <p>
      * This method:
      * <ul>
-     *   <li>Uses {@link sudoku.Generator#generateUnique(int, int)} to create a puzzle.</li>
-     *   <li>Builds a copy of the puzzle with non-given cells cleared, then solves
-     *       that board via {@link sudoku.Solver} to cache the solution.</li>
-     *   <li>Wraps the generated puzzle in a {@link BoardFacade} and replaces
+     *   <li>Takes a ready-made puzzle from {@link #PUZZLES} when one is waiting, which is
+     *       instant; otherwise generates one with
+     *       {@link sudoku.Generator#generateWithin(int, java.time.Duration)}, racing attempts
+     *       on all cores for at most {@link #NEW_GAME_BUDGET}, in a {@link SwingWorker} so
+     *       the window stays responsive, disabling New Game meanwhile.</li>
+     *   <li>Wraps the puzzle in a {@link BoardFacade}, which solves its
+     *       givens and keeps the solution, and replaces
      *       the current {@link BoardPanel} with one displaying the new view.</li>
-     *   <li>Shows an error dialog if generation fails.</li>
+     *   <li>Names the given count in the title when the puzzle has more givens than
+     *       {@code difficulty} asked for.</li>
      * </ul>
      *
      * @param difficulty number of givens to request (used by the generator)
-     * @param MaxAtt     maximum number of attempts when generating the puzzle
      */
-    private void startRandomPuzzle(int difficulty, int MaxAtt){
-        try {
-            Board core = Generator.generateUnique(difficulty, MaxAtt);
-
-            Board base = BoardUtils.copy(core);
-            for (int r = 0; r < Board.SIZE; r++){
-                for (int c = 0; c < Board.SIZE; c++){
-                    if (!base.cell(r,c).isGiven()) base.cell(r,c).setValue(0);
-                }
+    private void startRandomPuzzle(int difficulty){
+        Board cached = PUZZLES.poll(difficulty);
+        if (cached != null){
+            showPuzzle(cached, difficulty);
+            return;
+        }
+        newMenu.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<GenerationResult, Void>() {
+            @Override protected GenerationResult doInBackground() {
+                return Generator.generateWithin(difficulty, NEW_GAME_BUDGET);
             }
-            Solver.solveBoard(base);
 
-            BoardView view = new BoardFacade(core);
-            setBoardView(view);
-            if (pencilItem != null){
-                pencilItem.setSelected(false);
+            @Override protected void done() {
+                newMenu.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    GenerationResult result = get();
+                    showPuzzle(result.getBoard(), difficulty);
+                } catch (Exception ex){
+                    Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(SudokuFrame.this,
+                        "Failed to generate a unique puzzle:\n" + cause.getMessage(),
+                        "New Game (Random)", JOptionPane.ERROR_MESSAGE);
+                }
             }
+        }.execute();
+    }
 
-        } catch (Exception ex){
-            JOptionPane.showMessageDialog(this,
-                "Failed to generate a unique puzzle:\n" + ex.getMessage(),
-                "New Game (Random)", JOptionPane.ERROR_MESSAGE);
+    /**
+     * Wraps a generated puzzle in a {@link BoardFacade} and installs it, leaving pencil mode.
+     * Names the given count in the title when it is above {@code difficulty}.
+     * @param core       the puzzle to play
+     * @param difficulty number of givens that was requested
+     */
+    private void showPuzzle(Board core, int difficulty){
+        int givens = 0;
+        for (int v : core.toArray()) if (v != 0) givens++;
+        BoardView view = new BoardFacade(core);
+        setBoardView(view);
+        setTitle(givens > difficulty ? "JSudoku (" + givens + " givens, " + (givens - difficulty) + " above target)" : "JSudoku");
+        if (pencilItem != null){
+            pencilItem.setSelected(false);
         }
     }
 }
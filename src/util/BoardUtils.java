@@ -10,18 +10,31 @@ import sudoku.Board;
 public class BoardUtils {
 
     /**
-     * Deep-copy a board's values into a new {@link Board}.
+     * Copy a board into a new {@link Board}, keeping its givens exactly.
+     * <p>The copy is a {@link Board#snapshot()}: it costs almost nothing until one of
+     * the two boards is written.</p>
      *
      * @param src source board
-     * @return an independent board with the same cell values
+     * @return an independent board with the same cell values and givens
      */
     public static Board copy(Board src) {
-        int[][] grid = new int[Board.SIZE][Board.SIZE];
+        return src.snapshot();
+    }
+
+    /**
+     * Copy only the givens of a board into a new {@link Board}, leaving every
+     * player-entered cell empty. This is the puzzle as the solver should see it.
+     *
+     * @param src source board
+     * @return an independent board holding just the givens
+     */
+    public static Board givensOnly(Board src) {
+        Board puzzle = src.snapshot();
         for (int r = 0; r < Board.SIZE; r++) {
             for (int c = 0; c < Board.SIZE; c++) {
-                grid[r][c] = src.cell(r, c).getValue();
+                puzzle.tryClear(r, c); // givens are kept
             }
         }
-        return new Board(grid);
+        return puzzle;
     }
 }